@@ -6,6 +6,8 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import android.app.AlertDialog;
+import android.graphics.Color;
+import android.os.Build;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -13,24 +15,38 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import alefelucas.minesweeper.R;
 import alefelucas.minesweeper.controller.adapter.MinesweeperAdapter;
+import alefelucas.minesweeper.controller.view.BoardView;
+import alefelucas.minesweeper.controller.view.CellStyles;
 import alefelucas.minesweeper.model.*;
+import alefelucas.minesweeper.solver.NoGuessGenerator;
+import alefelucas.minesweeper.solver.ProbabilityMap;
 
 /**
  * ============================================= FUNCIONAMENTO ============================================= *
  * *
  * Esta implementação de campo minado usa as seguintes estruturas de dados:
- * {@link Cell} - Classe que representa um quadrado do jogo.
- * {@link Minesweeper} - Classe que representa o jogo em sí, possuindo uma matriz de {@link Cell}, métodos
+ * {@link Minesweeper} - Classe que representa o jogo em sí, guardando os quadrados num vetor de bytes, métodos
  * para revelar uma posição, obter status do jogo, obter largura/altura, obter rótulo de um quadrado pela
  * posição, dizer se um quadrado está revelado, etc.
- * {@link CellType} - Enumeração que define os tipos de célula.
  * {@link GameStatus} - Enumeração que define o status do jogo.
  * <p>
  * O campo minado é implementado com uma {@link RecyclerView}, cujo Adapter é o {@link MinesweeperAdapter}.
+ * Campos grandes demais para um botão por quadrado são desenhados pela {@link BoardView}.
  * Cada classe possui sua própria documentação nela, com classes mais extensas possuindo documentação de
  * cada método. Os métodos estão refatorados. Os nomes de variáveis e métodos estão todos em inglês. As
  * string são escritas em inglês no strings.xml, possuindo tradução para o português (pt). Os ícones usados
@@ -48,38 +64,167 @@ public class MainActivity extends AppCompatActivity {
     private MenuItem visibilityMenu;
 
     private boolean isFieldVisible;
+    private boolean isHeatmapVisible;
+    private boolean isNoGuess;
 
     private RecyclerView recyclerView;
     private static final int SPAN_COUNT = 10;
 
+    private BoardView boardView;
+    private CellStyles cellStyles;
+    private ProbabilityMap boardProbabilities;
+
+    /**
+     * Acima desta quantidade de quadrados, o campo é desenhado pela {@link BoardView}.
+     */
+    private static final int MAX_RECYCLER_CELLS = 400;
+
     private TextView statusTextView;
     private Button tryAgainButton;
 
     private Minesweeper minesweeper;
     private MinesweeperAdapter adapter;
 
-    private static final int[] MINE_OPTIONS = {18, 15, 12};
-    private static final int[] HEIGHT_OPTIONS = {10, 13, 16};
+    private ExecutorService boardExecutor;
+    private BoardPool boardPool;
+    private static final int POOL_CAPACITY = 2;
+
+    /**
+     * Se um jogo novo sem chute espera o {@link #boardPool} gerar um campo; enquanto isso, o jogo
+     * atual continua na tela.
+     */
+    private boolean waitingForBoard;
+
+    /**
+     * Workers da geração de campos sem chute, um por núcleo, separados do {@link #boardExecutor}
+     * que espera por eles.
+     */
+    private ExecutorService noGuessExecutor;
+
+    /**
+     * Tempo limite da busca por um campo sem chute, depois do qual o jogo usa um campo comum.
+     */
+    private static final long NO_GUESS_TIMEOUT_MILLIS = 3000;
+
+    private static final int[] MINE_OPTIONS = {18, 15, 12, 40000};
+    private static final int[] HEIGHT_OPTIONS = {10, 13, 16, 500};
+    private static final int[] WIDTH_OPTIONS = {SPAN_COUNT, SPAN_COUNT, SPAN_COUNT, 500};
     private static final int DEFAULT_OPTION = 1;
+
+    /**
+     * Teto do histórico de desfazer, em inteiros (1 MB), para os campos grandes; ver {@link #undoCapacity}.
+     */
+    private static final int MAX_UNDO_CAPACITY = 1 << 18;
     private int option;
 
+    private static final String KEY_OPTION = "option";
+    private static final String KEY_HEATMAP = "heatmap";
+    private static final String KEY_NO_GUESS = "no_guess";
+    private static final String KEY_SNAPSHOT = "snapshot";
+    private static final String KEY_SNAPSHOT_IN_FILE = "snapshot_in_file";
+    private static final String SNAPSHOT_FILE = "game.snapshot";
 
     /**
-     * Do ciclo de vida da Activity.
+     * Snapshots maiores que isto vão para um arquivo, e não para o {@link Bundle}, que tem
+     * um limite de tamanho nas transações entre processos.
+     */
+    private static final int MAX_BUNDLE_SNAPSHOT = 256 * 1024;
+
+
+    /**
+     * Do ciclo de vida da Activity. Se houver um jogo salvo por {@link #onSaveInstanceState(Bundle)},
+     * ele é restaurado; senão, começa um jogo novo.
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        this.boardExecutor = Executors.newSingleThreadExecutor();
+        this.noGuessExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
         this.initViews();
         this.statusTextView.setVisibility(View.GONE);
         this.tryAgainButton.setVisibility(View.GONE);
-        this.setUpRecyclerView();
         this.option = DEFAULT_OPTION;
+        Minesweeper saved = null;
+        if (savedInstanceState != null) {
+            this.option = savedInstanceState.getInt(KEY_OPTION, DEFAULT_OPTION);
+            this.isHeatmapVisible = savedInstanceState.getBoolean(KEY_HEATMAP);
+            this.isNoGuess = savedInstanceState.getBoolean(KEY_NO_GUESS);
+            saved = this.restoreSnapshot(savedInstanceState);
+        }
+        this.setUpRecyclerView(saved);
         this.tryAgainButton.setOnClickListener(v -> restart());
     }
 
+    /**
+     * Do ciclo de vida da Activity. Salva o jogo em andamento num snapshot binário compacto,
+     * no próprio {@link Bundle} ou, se for grande, num arquivo.
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(KEY_OPTION, this.option);
+        outState.putBoolean(KEY_HEATMAP, this.isHeatmapVisible);
+        outState.putBoolean(KEY_NO_GUESS, this.isNoGuess);
+        if (MinesweeperSnapshot.size(this.minesweeper) <= MAX_BUNDLE_SNAPSHOT) {
+            outState.putByteArray(KEY_SNAPSHOT, MinesweeperSnapshot.toBytes(this.minesweeper));
+            return;
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(getCacheDir(), SNAPSHOT_FILE)))) {
+            MinesweeperSnapshot.write(this.minesweeper, out);
+            outState.putBoolean(KEY_SNAPSHOT_IN_FILE, true);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Retorna o limite do histórico de desfazer do jogo dado. Cada jogada guardada revela ao menos um
+     * quadrado e ocupa as posições reveladas mais quatro inteiros, então cinco inteiros por quadrado
+     * guardam um jogo inteiro sem descartar nada; nos campos grandes, o limite é
+     * {@link #MAX_UNDO_CAPACITY}. O histórico só aloca o que as jogadas usam.
+     */
+    private static int undoCapacity(Minesweeper minesweeper) {
+        return (int) Math.min(MAX_UNDO_CAPACITY, 5L * minesweeper.getWidth() * minesweeper.getHeight());
+    }
+
+    /**
+     * Lê o jogo salvo por {@link #onSaveInstanceState(Bundle)}.
+     *
+     * @return o jogo salvo, ou null se não houver um jogo salvo legível.
+     */
+    private Minesweeper restoreSnapshot(Bundle savedInstanceState) {
+        byte[] snapshot = savedInstanceState.getByteArray(KEY_SNAPSHOT);
+        if (snapshot != null) {
+            try {
+                return MinesweeperSnapshot.fromBytes(snapshot);
+            } catch (IllegalArgumentException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        if (savedInstanceState.getBoolean(KEY_SNAPSHOT_IN_FILE)) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(new File(getCacheDir(), SNAPSHOT_FILE)))) {
+                return MinesweeperSnapshot.read(in);
+            } catch (IOException | IllegalArgumentException e) {
+                e.printStackTrace();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Do ciclo de vida da Activity. Encerra a geração de campos em segundo plano.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        this.boardPool.close();
+        this.boardExecutor.shutdownNow();
+        this.noGuessExecutor.shutdownNow();
+    }
+
     /**
      * Método chamado pelo {@link #adapter} quando o jogo é vencido.
      * Exibe texto de vitória e o botão de jogar novamente.
@@ -103,24 +248,144 @@ public class MainActivity extends AppCompatActivity {
 
     /**
      * Reinicia o jogo, esconde o botão de jogar novamente e a mensagem de texto.
-     * Remove a visibilidade de campo minado.
+     * Remove a visibilidade de campo minado. No modo sem chute, se ainda não houver um campo gerado,
+     * avisa que ele está sendo gerado e mantém o jogo atual até {@link #onBoardReady(BoardPool)}.
      */
     private void restart() {
+        if (this.isNoGuess && !this.boardPool.isReady()) {
+            this.waitingForBoard = true;
+            this.statusTextView.setText(R.string.generating_board);
+            this.statusTextView.setVisibility(View.VISIBLE);
+            this.tryAgainButton.setVisibility(View.GONE);
+            return;
+        }
+        this.waitingForBoard = false;
         this.statusTextView.setVisibility(View.GONE);
         this.tryAgainButton.setVisibility(View.GONE);
-        this.minesweeper = new Minesweeper(HEIGHT_OPTIONS[option], SPAN_COUNT, MINE_OPTIONS[option]);
-        this.adapter.restart(minesweeper);
+        this.minesweeper = this.boardPool.take();
+        this.minesweeper.enableUndo(undoCapacity(this.minesweeper));
         if (this.isFieldVisible) {
             this.adapter.toggleVisibility();
             this.isFieldVisible = false;
             this.visibilityMenu.setIcon(ContextCompat.getDrawable(this, R.drawable.ic_visibility_off_black_24dp));
         }
+        this.adapter.restart(minesweeper, this.isHeatmapVisible && !isLarge(this.option));
+        this.showBoard();
+    }
+
+    /**
+     * Exibe o jogo atual na {@link RecyclerView} ou, se o campo for grande, na {@link BoardView}.
+     */
+    private void showBoard() {
+        boolean large = isLarge(this.option);
+        this.recyclerView.setVisibility(large ? View.GONE : View.VISIBLE);
+        this.boardView.setVisibility(large ? View.VISIBLE : View.GONE);
+        if (large) {
+            this.boardView.setMinesweeper(this.minesweeper, this.cellStyles, this::onBoardCellClick);
+            this.boardView.setOnCellLongClickListener(this::onBoardCellLongClick);
+            this.boardView.setShowing(this.isFieldVisible);
+            this.setBoardHeatmap(this.isHeatmapVisible);
+        }
+    }
+
+    /**
+     * Revela o quadrado tocado na {@link BoardView}, ou abre os vizinhos de um número já revelado,
+     * e redesenha só as áreas alteradas.
+     */
+    private void onBoardCellClick(int x, int y) {
+        if (this.minesweeper.getStatus() != GameStatus.PLAYING || this.isFieldVisible) {
+            return;
+        }
+        int[] reveal = this.minesweeper.isRevealed(x, y) ? this.minesweeper.chord(x, y) : this.minesweeper.reveal(x, y);
+        if (reveal.length == 0) {
+            return;
+        }
+        if (this.boardProbabilities != null) {
+            this.boardProbabilities.update(reveal);
+            this.boardView.redraw();
+        } else {
+            this.boardView.invalidateCells(ChangeSet.of(reveal));
+        }
+        switch (this.minesweeper.getStatus()) {
+            case WON:
+                this.won();
+                break;
+            case LOST:
+                this.lost();
+                break;
+        }
+    }
+
+    /**
+     * Marca ou desmarca como mina o quadrado tocado longamente na {@link BoardView}.
+     */
+    private void onBoardCellLongClick(int x, int y) {
+        if (this.minesweeper.getStatus() != GameStatus.PLAYING || this.isFieldVisible) {
+            return;
+        }
+        if (this.minesweeper.toggleFlag(x, y)) {
+            this.boardView.invalidateCells(ChangeSet.range(this.minesweeper.getWidth() * y + x, 1));
+        }
+    }
+
+    /**
+     * Liga ou desliga o mapa de probabilidade de minas da {@link BoardView}.
+     */
+    private void setBoardHeatmap(boolean enabled) {
+        this.boardProbabilities = enabled ? new ProbabilityMap(this.minesweeper) : null;
+        this.boardView.setProbabilities(this.boardProbabilities);
+    }
+
+    /**
+     * Atualiza a tela depois de desfazer ou refazer uma jogada, dadas as posições alteradas.
+     */
+    private void onMoveChanged(int[] positions) {
+        ChangeSet changes = ChangeSet.of(positions);
+        if (isLarge(this.option)) {
+            if (this.boardProbabilities != null) {
+                this.setBoardHeatmap(true);
+            } else {
+                this.boardView.invalidateCells(changes);
+            }
+        } else {
+            this.adapter.refresh(changes);
+        }
+        switch (this.minesweeper.getStatus()) {
+            case WON:
+                this.won();
+                break;
+            case LOST:
+                this.lost();
+                break;
+            default:
+                this.statusTextView.setVisibility(View.GONE);
+                this.tryAgainButton.setVisibility(View.GONE);
+        }
+    }
+
+    private static boolean isLarge(int option) {
+        return HEIGHT_OPTIONS[option] * WIDTH_OPTIONS[option] > MAX_RECYCLER_CELLS;
+    }
+
+    /**
+     * Resolve uma única vez as cores dos quadrados, compartilhadas pelo {@link #adapter} e pela {@link #boardView}.
+     */
+    private CellStyles createCellStyles() {
+        int[] numberColorIds = {R.color.one, R.color.two, R.color.three, R.color.four, R.color.five, R.color.six, R.color.seven, R.color.eight};
+        int[] numberColors = new int[numberColorIds.length];
+        for (int i = 0; i < numberColorIds.length; i++) {
+            numberColors[i] = ContextCompat.getColor(this, numberColorIds[i]);
+        }
+        return new CellStyles(ContextCompat.getColor(this, R.color.field),
+                ContextCompat.getColor(this, R.color.open_field),
+                ContextCompat.getColor(this, R.color.mine_probability),
+                numberColors, Color.BLACK);
     }
 
     /**
-     * Configura a {@link RecyclerView} e o jogo inicial.
+     * Configura a {@link RecyclerView} e o jogo inicial: o jogo salvo dado, se houver, ou um jogo novo.
      */
-    private void setUpRecyclerView() {
+    private void setUpRecyclerView(Minesweeper saved) {
         this.recyclerView.setLayoutManager(new GridLayoutManager(this, SPAN_COUNT, RecyclerView.VERTICAL, false) {
 
             /**
@@ -135,9 +400,47 @@ public class MainActivity extends AppCompatActivity {
                 }
             }
         });
-        this.minesweeper = new Minesweeper(HEIGHT_OPTIONS[DEFAULT_OPTION], SPAN_COUNT, MINE_OPTIONS[DEFAULT_OPTION]);
-        this.adapter = new MinesweeperAdapter(this, minesweeper);
+        this.replaceBoardPool(this.option);
+        this.minesweeper = saved != null ? saved : this.boardPool.take();
+        this.minesweeper.enableUndo(undoCapacity(this.minesweeper));
+        this.cellStyles = createCellStyles();
+        this.adapter = new MinesweeperAdapter(this, minesweeper, this.cellStyles);
+        this.adapter.setHeatmap(this.isHeatmapVisible && !isLarge(this.option));
         this.recyclerView.setAdapter(adapter);
+        this.showBoard();
+        switch (this.minesweeper.getStatus()) {
+            case WON:
+                this.won();
+                break;
+            case LOST:
+                this.lost();
+                break;
+        }
+    }
+
+    /**
+     * Troca o {@link #boardPool} por um que gera em segundo plano os campos do tamanho da opção dada,
+     * sem chute se o modo estiver ligado. O pool anterior é fechado, então as suas gerações ainda na
+     * fila do {@link #boardExecutor} são puladas em vez de atrasar as do novo.
+     */
+    private void replaceBoardPool(int option) {
+        if (this.boardPool != null) {
+            this.boardPool.close();
+        }
+        NoGuessGenerator generator = this.isNoGuess ? new NoGuessGenerator(this.noGuessExecutor,
+                Runtime.getRuntime().availableProcessors(), NO_GUESS_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) : null;
+        BoardPool pool = new BoardPool(HEIGHT_OPTIONS[option], WIDTH_OPTIONS[option], MINE_OPTIONS[option], POOL_CAPACITY, this.boardExecutor, generator);
+        pool.setOnBoardReady(() -> runOnUiThread(() -> onBoardReady(pool)));
+        this.boardPool = pool;
+    }
+
+    /**
+     * Chamado na thread principal quando o pool dado gera um campo: começa o jogo novo que esperava por ele.
+     */
+    private void onBoardReady(BoardPool pool) {
+        if (pool == this.boardPool && this.waitingForBoard && !isFinishing()) {
+            restart();
+        }
     }
 
     /**
@@ -147,6 +450,7 @@ public class MainActivity extends AppCompatActivity {
         this.statusTextView = findViewById(R.id.status_text_view);
         this.tryAgainButton = findViewById(R.id.try_again_button);
         this.recyclerView = findViewById(R.id.field_recycler_view);
+        this.boardView = findViewById(R.id.board_view);
     }
 
     /**
@@ -156,6 +460,12 @@ public class MainActivity extends AppCompatActivity {
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu, menu);
         this.visibilityMenu = menu.findItem(R.id.action_visibility);
+        // O cálculo de probabilidades usa fork/join, disponível a partir da API 21.
+        menu.findItem(R.id.action_heatmap).setVisible(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP);
+        menu.findItem(R.id.action_heatmap).setChecked(this.isHeatmapVisible);
+        // Assim como o mapa, o resolvedor usado pela geração sem chute depende de fork/join.
+        menu.findItem(R.id.action_no_guess).setVisible(Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP);
+        menu.findItem(R.id.action_no_guess).setChecked(this.isNoGuess);
         return super.onCreateOptionsMenu(menu);
     }
 
@@ -168,6 +478,30 @@ public class MainActivity extends AppCompatActivity {
             case R.id.action_visibility:
                 this.onToggleVisibility();
 
+                break;
+            case R.id.action_heatmap:
+                this.isHeatmapVisible = !this.isHeatmapVisible;
+                item.setChecked(this.isHeatmapVisible);
+                this.adapter.setHeatmap(this.isHeatmapVisible && !isLarge(this.option));
+                if (isLarge(this.option)) {
+                    this.setBoardHeatmap(this.isHeatmapVisible);
+                }
+                break;
+            case R.id.action_no_guess:
+                this.isNoGuess = !this.isNoGuess;
+                item.setChecked(this.isNoGuess);
+                this.replaceBoardPool(this.option);
+                restart();
+                break;
+            case R.id.action_undo:
+                if (this.minesweeper.canUndo()) {
+                    this.onMoveChanged(this.minesweeper.undo());
+                }
+                break;
+            case R.id.action_redo:
+                if (this.minesweeper.canRedo()) {
+                    this.onMoveChanged(this.minesweeper.redo());
+                }
                 break;
             case R.id.action_refresh:
                 restart();
@@ -175,12 +509,13 @@ public class MainActivity extends AppCompatActivity {
             case R.id.action_size:
                 String[] sizes = new String[HEIGHT_OPTIONS.length];
                 for (int i = 0; i < HEIGHT_OPTIONS.length; i++) {
-                    sizes[i] = String.format(Locale.getDefault(), "%dx%d (%d %s)", HEIGHT_OPTIONS[i], SPAN_COUNT, MINE_OPTIONS[i], getString(R.string.mines));
+                    sizes[i] = String.format(Locale.getDefault(), "%dx%d (%d %s)", HEIGHT_OPTIONS[i], WIDTH_OPTIONS[i], MINE_OPTIONS[i], getString(R.string.mines));
                 }
                 AlertDialog.Builder builder = new AlertDialog.Builder(this);
                 builder.setTitle(R.string.change_size)
                         .setItems(sizes, (dialog, which) -> {
                             this.option = which;
+                            this.replaceBoardPool(which);
                             restart();
                         });
                 AlertDialog alertDialog = builder.create();
@@ -196,6 +531,7 @@ public class MainActivity extends AppCompatActivity {
      */
     private void onToggleVisibility() {
         this.adapter.toggleVisibility();
+        this.boardView.setShowing(!this.isFieldVisible);
         if (!this.isFieldVisible) {
             this.visibilityMenu.setIcon(ContextCompat.getDrawable(this, R.drawable.ic_visibility_black_24dp));
             this.isFieldVisible = true;
@@ -1,9 +1,6 @@
 package alefelucas.minesweeper.controller.adapter;
 
 
-import android.graphics.Color;
-
-import android.util.DisplayMetrics;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,15 +8,16 @@ import android.widget.Button;
 
 
 import androidx.annotation.NonNull;
-import androidx.core.content.ContextCompat;
 
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-
 import alefelucas.minesweeper.R;
 import alefelucas.minesweeper.controller.activity.MainActivity;
+import alefelucas.minesweeper.controller.view.CellAppearance;
+import alefelucas.minesweeper.controller.view.CellStyles;
+import alefelucas.minesweeper.model.ChangeSet;
 import alefelucas.minesweeper.model.Minesweeper;
+import alefelucas.minesweeper.solver.ProbabilityMap;
 
 import static alefelucas.minesweeper.model.GameStatus.PLAYING;
 
@@ -34,14 +32,30 @@ public class MinesweeperAdapter extends RecyclerView.Adapter<MinesweeperAdapter.
     private Minesweeper minesweeper;
     private MainActivity context;
     private boolean showing;
+    private ProbabilityMap probabilities;
+    private final CellAppearance appearance;
+    private final int cellSize;
+
+    /**
+     * Único listener de clique, compartilhado por todos os quadrados; a posição vem do
+     * {@link MinesweeperViewHolder} guardado na tag do botão.
+     */
+    private final View.OnClickListener cellClickListener = this::onCellClick;
 
     /**
-     * Constrói o objeto {@link MinesweeperAdapter} dada a referência da {@link MainActivity} e o jogo {@link Minesweeper}.
+     * Único listener de toque longo, que marca ou desmarca o quadrado.
      */
-    public MinesweeperAdapter(MainActivity context, Minesweeper minesweeper) {
+    private final View.OnLongClickListener cellLongClickListener = this::onCellLongClick;
+
+    /**
+     * Constrói o objeto {@link MinesweeperAdapter} dada a referência da {@link MainActivity}, o jogo {@link Minesweeper}
+     * e as cores já resolvidas dos quadrados. O tamanho dos quadrados é calculado aqui, uma única vez.
+     */
+    public MinesweeperAdapter(MainActivity context, Minesweeper minesweeper, CellStyles styles) {
         this.context = context;
         this.minesweeper = minesweeper;
-
+        this.appearance = new CellAppearance(styles);
+        this.cellSize = context.getResources().getDisplayMetrics().widthPixels / 13;
     }
 
     /**
@@ -55,13 +69,11 @@ public class MinesweeperAdapter extends RecyclerView.Adapter<MinesweeperAdapter.
     @Override
     public MinesweeperViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         if (viewType == CELL) {
-            DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
-            float dpHeight = displayMetrics.heightPixels / displayMetrics.density;
-            float dpWidth = displayMetrics.widthPixels / displayMetrics.density;
-            final float scale = context.getResources().getDisplayMetrics().density;
-            int height = (int) (dpHeight * scale + 0.5f);
-            int width = (int) (dpWidth * scale + 0.5f);
-            return new MinesweeperViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.cell_item, parent, false), height, width);
+            MinesweeperViewHolder holder = new MinesweeperViewHolder(LayoutInflater.from(parent.getContext()).inflate(R.layout.cell_item, parent, false), this.cellSize);
+            holder.cellButton.setTag(holder);
+            holder.cellButton.setOnClickListener(this.cellClickListener);
+            holder.cellButton.setOnLongClickListener(this.cellLongClickListener);
+            return holder;
         }
         throw new IllegalStateException();
     }
@@ -74,81 +86,122 @@ public class MinesweeperAdapter extends RecyclerView.Adapter<MinesweeperAdapter.
         return CELL;
     }
 
+    /**
+     * Mostra ou esconde o conteúdo dos quadrados não revelados. Os quadrados escondidos ficam
+     * espalhados pelo campo, então todo o campo é notificado num único intervalo.
+     */
     public void toggleVisibility() {
         this.showing = !this.showing;
-        for (int i = 0; i < this.minesweeper.getHeight(); i++) {
-            for (int j = 0; j < this.minesweeper.getWidth(); j++) {
-                if (!this.minesweeper.isRevealed(j, i)) {
-                    int position = i * this.minesweeper.getWidth() + j;
-                    this.notifyItemChanged(position);
-                }
-            }
-        }
-
+        this.notifyChanges(ChangeSet.range(0, getItemCount()));
+    }
 
+    /**
+     * Liga ou desliga o mapa de probabilidade de minas, que colore os quadrados escondidos
+     * de acordo com a chance de terem uma mina.
+     */
+    public void setHeatmap(boolean enabled) {
+        this.probabilities = enabled ? new ProbabilityMap(this.minesweeper) : null;
+        this.notifyItemRangeChanged(0, getItemCount());
     }
 
     /**
      * Do ciclo de vida do adapter. Configura o quadrado de acordo com seu status de
-     * revelado e rótulo exibido. Define a ação para o clique/toque no quadrado.
+     * revelado e rótulo exibido, sem alocar nada: o texto e as cores são decididos pelo
+     * {@link #appearance} e o listener de clique é definido na criação do {@link MinesweeperViewHolder}.
      */
     @Override
     public void onBindViewHolder(@NonNull MinesweeperViewHolder holder, int position) {
         int y = position / this.minesweeper.getWidth();
         int x = position % this.minesweeper.getWidth();
 
-        if (showing || this.minesweeper.isRevealed(x, y)) {
-            holder.cellButton.setBackgroundColor(ContextCompat.getColor(context, R.color.open_field));
-            char cellLabel = this.minesweeper.getCellLabel(x, y);
-            setLabelColor(holder.cellButton, cellLabel);
-            holder.cellButton.setText(Character.toString(cellLabel));
+        this.appearance.resolve(this.minesweeper, x, y, this.showing, this.probabilities);
+        holder.cellButton.setBackgroundColor(this.appearance.getBackgroundColor());
+        holder.cellButton.setTextColor(this.appearance.getTextColor());
+        holder.cellButton.setText(this.appearance.getText());
+    }
+
+    /**
+     * Revela o quadrado tocado, dado pelo {@link MinesweeperViewHolder} na tag do botão. Num número
+     * já revelado, abre de uma vez os vizinhos não marcados, se as marcas ao redor baterem com o número.
+     */
+    private void onCellClick(View view) {
+        if (this.minesweeper.getStatus() != PLAYING || this.showing) {
+            return;
+        }
+        int adapterPosition = ((MinesweeperViewHolder) view.getTag()).getAdapterPosition();
+        if (adapterPosition == RecyclerView.NO_POSITION) {
+            return;
+        }
+        int j = adapterPosition / this.minesweeper.getWidth();
+        int i = adapterPosition % this.minesweeper.getWidth();
+
+        int[] reveal = this.minesweeper.isRevealed(i, j) ? this.minesweeper.chord(i, j) : this.minesweeper.reveal(i, j);
+        if (reveal.length == 0) {
+            return;
+        }
+        if (this.probabilities != null) {
+            this.probabilities.update(reveal);
+            this.notifyChanges(ChangeSet.range(0, getItemCount()));
         } else {
-            holder.cellButton.setText("");
-            holder.cellButton.setBackgroundColor(ContextCompat.getColor(context, R.color.field));
+            this.notifyChanges(ChangeSet.of(reveal));
+        }
+        switch (this.minesweeper.getStatus()) {
+            case WON:
+                this.context.won();
+                break;
+            case LOST:
+                this.context.lost();
+                break;
+        }
+    }
+
+    /**
+     * Marca ou desmarca como mina o quadrado tocado longamente.
+     */
+    private boolean onCellLongClick(View view) {
+        if (this.minesweeper.getStatus() != PLAYING || this.showing) {
+            return false;
+        }
+        int adapterPosition = ((MinesweeperViewHolder) view.getTag()).getAdapterPosition();
+        if (adapterPosition == RecyclerView.NO_POSITION) {
+            return false;
         }
+        int width = this.minesweeper.getWidth();
+        if (!this.minesweeper.toggleFlag(adapterPosition % width, adapterPosition / width)) {
+            return false;
+        }
+        this.notifyItemChanged(adapterPosition);
+        return true;
+    }
 
-        holder.cellButton.setOnClickListener(v -> {
-            if (this.minesweeper.getStatus() == PLAYING && !this.showing) {
-                int adapterPosition = holder.getAdapterPosition();
-                int j = adapterPosition / this.minesweeper.getWidth();
-                int i = adapterPosition % this.minesweeper.getWidth();
-
-                if (!this.minesweeper.isRevealed(i, j)) {
-
-                    ArrayList<Integer> reveal = this.minesweeper.reveal(i, j);
-                    for (Integer pos : reveal) {
-                        this.notifyItemChanged(pos);
-                    }
-                    switch (this.minesweeper.getStatus()) {
-                        case WON:
-                            this.context.won();
-                            break;
-                        case LOST:
-                            this.context.lost();
-                            break;
-                    }
-                }
-            }
-        });
+    /**
+     * Atualiza os quadrados alterados fora de um toque, como ao desfazer uma jogada. Com o mapa de
+     * probabilidade ligado, ele é recalculado e todo o campo é atualizado.
+     */
+    public void refresh(ChangeSet changes) {
+        if (this.probabilities != null) {
+            this.probabilities = new ProbabilityMap(this.minesweeper);
+            this.notifyChanges(ChangeSet.range(0, getItemCount()));
+        } else {
+            this.notifyChanges(changes);
+        }
     }
 
     /**
-     * Define a cor do rótulo dos quadrados.
+     * Notifica a {@link RecyclerView} das posições alteradas, com uma chamada por intervalo.
      */
-    private void setLabelColor(Button cellButton, char cellLabel) {
-        int[] colorIds = {R.color.one, R.color.two, R.color.three, R.color.four, R.color.five, R.color.six, R.color.seven, R.color.eight};
-        if (cellLabel == 'N' || cellLabel == '*') {
-            cellButton.setTextColor(Color.BLACK);
-        } else if (cellLabel != ' ') {
-            cellButton.setTextColor(ContextCompat.getColor(context, colorIds[cellLabel - '1']));
+    private void notifyChanges(ChangeSet changes) {
+        for (int range = 0; range < changes.getRangeCount(); range++) {
+            this.notifyItemRangeChanged(changes.getStart(range), changes.getCount(range));
         }
     }
 
     /**
-     * Reinicia o jogo com um novo campo minado.
+     * Reinicia o jogo com um novo campo minado, com ou sem o mapa de probabilidade de minas.
      */
-    public void restart(Minesweeper minesweeper) {
+    public void restart(Minesweeper minesweeper, boolean heatmap) {
         this.minesweeper = minesweeper;
+        this.probabilities = heatmap ? new ProbabilityMap(minesweeper) : null;
         this.notifyDataSetChanged();
     }
 
@@ -168,13 +221,13 @@ public class MinesweeperAdapter extends RecyclerView.Adapter<MinesweeperAdapter.
 
         Button cellButton;
 
-        MinesweeperViewHolder(@NonNull View itemView, float height, float width) {
+        MinesweeperViewHolder(@NonNull View itemView, int cellSize) {
             super(itemView);
 
             cellButton = itemView.findViewById(R.id.cell_button);
 
-            cellButton.getLayoutParams().width = (int) (width / 13);
-            cellButton.getLayoutParams().height = (int) (width / 13);
+            cellButton.getLayoutParams().width = cellSize;
+            cellButton.getLayoutParams().height = cellSize;
 
         }
     }
@@ -0,0 +1,429 @@
+package alefelucas.minesweeper.controller.view;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import alefelucas.minesweeper.model.ChangeSet;
+import alefelucas.minesweeper.model.Minesweeper;
+import alefelucas.minesweeper.solver.ProbabilityMap;
+
+/**
+ * View única que desenha o campo direto do {@link Minesweeper} num canvas, alternativa à
+ * {@link androidx.recyclerview.widget.RecyclerView} para campos grandes, onde um botão por
+ * quadrado não escala.
+ * <p>
+ * Só os quadrados visíveis são desenhados, e quadrados vizinhos da mesma cor numa linha são
+ * desenhados num único retângulo. O campo pode ser arrastado e ampliado com gestos; um toque é
+ * convertido nas coordenadas do quadrado e repassado ao {@link OnCellClickListener}.
+ * <p>
+ * O campo é desenhado num bitmap do tamanho da view, que é só copiado na tela a cada quadro.
+ * Depois de uma jogada, {@link #invalidateCells(ChangeSet)} redesenha no bitmap só os retângulos
+ * alterados. Arrastar, ampliar ou trocar as cores redesenha o bitmap inteiro.
+ *
+ * @author Álefe Lucas
+ */
+public class BoardView extends View {
+
+    /**
+     * Recebe os toques nos quadrados do campo.
+     */
+    public interface OnCellClickListener {
+        void onCellClick(int x, int y);
+    }
+
+    /**
+     * Recebe os toques longos nos quadrados do campo.
+     */
+    public interface OnCellLongClickListener {
+        void onCellLongClick(int x, int y);
+    }
+
+    private static final float MIN_CELL_DP = 4;
+    private static final float MAX_CELL_DP = 64;
+    private static final float DEFAULT_CELL_DP = 30;
+
+    /**
+     * Abaixo deste tamanho, em pixels, os rótulos não são desenhados.
+     */
+    private static final float MIN_TEXT_CELL_PX = 12;
+
+    private final Paint cellPaint = new Paint();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Rect clip = new Rect();
+
+    /**
+     * Cópia do que a view mostra, e se ela ainda corresponde ao campo, ao deslocamento e às cores.
+     */
+    private Bitmap buffer;
+    private Canvas bufferCanvas;
+    private boolean bufferValid;
+
+    /**
+     * Quadrados da área visível, lidos de uma vez com {@link Minesweeper#readRegion}; só cresce
+     * quando a área visível cresce.
+     */
+    private byte[] region = new byte[0];
+    private final GestureDetector gestureDetector;
+    private final ScaleGestureDetector scaleDetector;
+    private final float minCellSize;
+    private final float maxCellSize;
+
+    private Minesweeper minesweeper;
+    private ProbabilityMap probabilities;
+    private CellStyles styles;
+    private OnCellClickListener listener;
+    private OnCellLongClickListener longClickListener;
+    private boolean showing;
+
+    /**
+     * Tamanho de um quadrado e posição do canto do campo, em pixels da view.
+     */
+    private float cellSize;
+    private float offsetX;
+    private float offsetY;
+
+    public BoardView(Context context) {
+        this(context, null);
+    }
+
+    public BoardView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = context.getResources().getDisplayMetrics().density;
+        this.minCellSize = MIN_CELL_DP * density;
+        this.maxCellSize = MAX_CELL_DP * density;
+        this.cellSize = DEFAULT_CELL_DP * density;
+        this.textPaint.setTextAlign(Paint.Align.CENTER);
+        this.gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                scrollByPixels(-distanceX, -distanceY);
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                onTap(e.getX(), e.getY());
+                return true;
+            }
+
+            @Override
+            public void onLongPress(MotionEvent e) {
+                onLongTap(e.getX(), e.getY());
+            }
+        });
+        this.scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                zoom(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Define o jogo exibido, as cores dos quadrados e quem recebe os toques.
+     */
+    public void setMinesweeper(Minesweeper minesweeper, CellStyles styles, OnCellClickListener listener) {
+        this.minesweeper = minesweeper;
+        this.styles = styles;
+        this.listener = listener;
+        this.offsetX = 0;
+        this.offsetY = 0;
+        clampOffset();
+        requestLayout();
+        redraw();
+    }
+
+    /**
+     * Define quem recebe os toques longos nos quadrados.
+     */
+    public void setOnCellLongClickListener(OnCellLongClickListener listener) {
+        this.longClickListener = listener;
+    }
+
+    /**
+     * Mostra ou esconde o conteúdo dos quadrados não revelados.
+     */
+    public void setShowing(boolean showing) {
+        this.showing = showing;
+        redraw();
+    }
+
+    /**
+     * Define o mapa de probabilidade usado para colorir os quadrados escondidos, ou null para desligá-lo.
+     */
+    public void setProbabilities(@Nullable ProbabilityMap probabilities) {
+        this.probabilities = probabilities;
+        redraw();
+    }
+
+    /**
+     * Redesenha o campo inteiro, como depois de mudar as probabilidades dos quadrados escondidos.
+     */
+    public void redraw() {
+        this.bufferValid = false;
+        invalidate();
+    }
+
+    /**
+     * Redesenha no bitmap só os retângulos que contêm as posições alteradas e pede um único quadro.
+     * Um intervalo contido numa linha vira um retângulo dessa linha; um intervalo que atravessa
+     * linhas vira o retângulo das linhas que ele ocupa.
+     */
+    public void invalidateCells(ChangeSet changes) {
+        if (this.minesweeper == null) {
+            return;
+        }
+        if (this.bufferValid) {
+            int width = this.minesweeper.getWidth();
+            for (int range = 0; range < changes.getRangeCount(); range++) {
+                int start = changes.getStart(range);
+                int end = start + changes.getCount(range) - 1;
+                int top = start / width;
+                int bottom = end / width;
+                int left = top == bottom ? start % width : 0;
+                int right = top == bottom ? end % width : width - 1;
+                redrawCells(left, top, right, bottom);
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Redesenha no bitmap o retângulo de quadrados dado, recortado à view.
+     */
+    private void redrawCells(int left, int top, int right, int bottom) {
+        int l = (int) Math.floor(this.offsetX + left * this.cellSize);
+        int t = (int) Math.floor(this.offsetY + top * this.cellSize);
+        int r = (int) Math.ceil(this.offsetX + (right + 1) * this.cellSize);
+        int b = (int) Math.ceil(this.offsetY + (bottom + 1) * this.cellSize);
+        if (r <= 0 || b <= 0 || l >= getWidth() || t >= getHeight()) {
+            return;
+        }
+        this.clip.set(Math.max(0, l), Math.max(0, t), Math.min(getWidth(), r), Math.min(getHeight(), b));
+        this.bufferCanvas.save();
+        this.bufferCanvas.clipRect(this.clip);
+        drawCells(this.bufferCanvas, this.clip);
+        this.bufferCanvas.restore();
+    }
+
+    /**
+     * Mede a view com a largura disponível e, se a altura não for fixa, com a altura
+     * do campo no tamanho atual dos quadrados, limitada ao espaço disponível ou, dentro de
+     * uma rolagem, à largura da view.
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        if (MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.EXACTLY) {
+            int boardHeight = this.minesweeper == null ? width : (int) Math.ceil(this.minesweeper.getHeight() * this.cellSize);
+            height = Math.min(MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.AT_MOST ? height : width, boardHeight);
+        }
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        releaseBuffer();
+        clampOffset();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseBuffer();
+    }
+
+    private void releaseBuffer() {
+        if (this.buffer != null) {
+            this.buffer.recycle();
+            this.buffer = null;
+            this.bufferCanvas = null;
+        }
+        this.bufferValid = false;
+    }
+
+    /**
+     * Copia o bitmap na tela, desenhando antes o campo inteiro nele se ele estiver desatualizado.
+     */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (this.minesweeper == null || this.styles == null || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+        if (this.buffer == null) {
+            this.buffer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+            this.bufferCanvas = new Canvas(this.buffer);
+        }
+        if (!this.bufferValid) {
+            this.clip.set(0, 0, getWidth(), getHeight());
+            drawCells(this.bufferCanvas, this.clip);
+            this.bufferValid = true;
+        }
+        canvas.drawBitmap(this.buffer, 0, 0, null);
+    }
+
+    /**
+     * Desenha os quadrados dentro da área dada, na qual o canvas já está recortado. O fundo é
+     * pintado com a cor dos quadrados escondidos, e cada sequência de quadrados da mesma cor numa
+     * linha é desenhada num único retângulo, então um campo ainda fechado custa só um preenchimento.
+     */
+    private void drawCells(Canvas canvas, Rect clip) {
+        int width = this.minesweeper.getWidth();
+        int height = this.minesweeper.getHeight();
+        int firstX = Math.max(0, (int) Math.floor((clip.left - this.offsetX) / this.cellSize));
+        int firstY = Math.max(0, (int) Math.floor((clip.top - this.offsetY) / this.cellSize));
+        int lastX = Math.min(width - 1, (int) Math.floor((clip.right - this.offsetX) / this.cellSize));
+        int lastY = Math.min(height - 1, (int) Math.floor((clip.bottom - this.offsetY) / this.cellSize));
+
+        int background = this.styles.getFieldColor(0);
+        canvas.drawColor(background);
+        int regionWidth = lastX - firstX + 1;
+        int regionHeight = lastY - firstY + 1;
+        if (regionWidth <= 0 || regionHeight <= 0) {
+            return;
+        }
+        if (this.region.length < regionWidth * regionHeight) {
+            this.region = new byte[regionWidth * regionHeight];
+        }
+        this.minesweeper.readRegion(firstX, firstY, regionWidth, regionHeight, this.region, 0);
+
+        boolean drawText = this.cellSize >= MIN_TEXT_CELL_PX;
+        this.textPaint.setTextSize(this.cellSize * 0.6f);
+        float textOffset = (this.cellSize - this.textPaint.ascent() - this.textPaint.descent()) / 2;
+
+        for (int y = firstY; y <= lastY; y++) {
+            float top = this.offsetY + y * this.cellSize;
+            int row = (y - firstY) * regionWidth - firstX;
+            int runStart = firstX;
+            int runColor = cellColor(this.region[row + firstX], firstX, y);
+            for (int x = firstX + 1; x <= lastX + 1; x++) {
+                int color = x <= lastX ? cellColor(this.region[row + x], x, y) : ~runColor;
+                if (color != runColor) {
+                    if (runColor != background) {
+                        this.cellPaint.setColor(runColor);
+                        canvas.drawRect(this.offsetX + runStart * this.cellSize, top,
+                                this.offsetX + x * this.cellSize, top + this.cellSize, this.cellPaint);
+                    }
+                    runStart = x;
+                    runColor = color;
+                }
+            }
+            if (drawText) {
+                for (int x = firstX; x <= lastX; x++) {
+                    byte cell = this.region[row + x];
+                    char label = Minesweeper.toLabel(cell);
+                    boolean open = this.showing || (cell & Minesweeper.REGION_REVEALED) != 0;
+                    if (!open && (cell & Minesweeper.REGION_FLAGGED) != 0) {
+                        label = CellStyles.FLAG;
+                    } else if (!open) {
+                        continue;
+                    }
+                    if (label != ' ') {
+                        this.textPaint.setColor(this.styles.getTextColor(label));
+                        canvas.drawText(this.styles.getText(label), this.offsetX + (x + 0.5f) * this.cellSize,
+                                top + textOffset, this.textPaint);
+                    }
+                }
+            }
+        }
+    }
+
+    private int cellColor(byte cell, int x, int y) {
+        if (this.showing || (cell & Minesweeper.REGION_REVEALED) != 0) {
+            return this.styles.getOpenFieldColor();
+        }
+        return this.styles.getFieldColor(this.probabilities != null ? this.probabilities.getProbability(x, y) : 0);
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN && getParent() != null) {
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+        this.scaleDetector.onTouchEvent(event);
+        if (!this.scaleDetector.isInProgress()) {
+            this.gestureDetector.onTouchEvent(event);
+        }
+        return true;
+    }
+
+    private void onTap(float viewX, float viewY) {
+        if (this.minesweeper == null || this.listener == null) {
+            return;
+        }
+        int x = (int) Math.floor((viewX - this.offsetX) / this.cellSize);
+        int y = (int) Math.floor((viewY - this.offsetY) / this.cellSize);
+        if (x >= 0 && x < this.minesweeper.getWidth() && y >= 0 && y < this.minesweeper.getHeight()) {
+            this.listener.onCellClick(x, y);
+        }
+    }
+
+    private void onLongTap(float viewX, float viewY) {
+        if (this.minesweeper == null || this.longClickListener == null || this.scaleDetector.isInProgress()) {
+            return;
+        }
+        int x = (int) Math.floor((viewX - this.offsetX) / this.cellSize);
+        int y = (int) Math.floor((viewY - this.offsetY) / this.cellSize);
+        if (x >= 0 && x < this.minesweeper.getWidth() && y >= 0 && y < this.minesweeper.getHeight()) {
+            this.longClickListener.onCellLongClick(x, y);
+        }
+    }
+
+    private void scrollByPixels(float dx, float dy) {
+        this.offsetX += dx;
+        this.offsetY += dy;
+        clampOffset();
+        redraw();
+    }
+
+    /**
+     * Amplia o campo pelo fator dado, mantendo fixo o ponto do foco do gesto.
+     */
+    private void zoom(float factor, float focusX, float focusY) {
+        float size = Math.max(this.minCellSize, Math.min(this.maxCellSize, this.cellSize * factor));
+        float applied = size / this.cellSize;
+        this.offsetX = focusX - (focusX - this.offsetX) * applied;
+        this.offsetY = focusY - (focusY - this.offsetY) * applied;
+        this.cellSize = size;
+        clampOffset();
+        redraw();
+    }
+
+    /**
+     * Mantém o campo dentro da view: se ele couber, fica centralizado; senão, suas bordas não
+     * podem entrar na view.
+     */
+    private void clampOffset() {
+        if (this.minesweeper == null) {
+            return;
+        }
+        this.offsetX = clampAxis(this.offsetX, this.minesweeper.getWidth() * this.cellSize, getWidth());
+        this.offsetY = clampAxis(this.offsetY, this.minesweeper.getHeight() * this.cellSize, getHeight());
+    }
+
+    private static float clampAxis(float offset, float board, float view) {
+        if (board <= view) {
+            return (view - board) / 2;
+        }
+        return Math.max(view - board, Math.min(0, offset));
+    }
+}
@@ -0,0 +1,59 @@
+package alefelucas.minesweeper.controller.view;
+
+import alefelucas.minesweeper.model.Minesweeper;
+import alefelucas.minesweeper.solver.ProbabilityMap;
+
+/**
+ * Texto e cores com que um quadrado é exibido, decididos por {@link #resolve} sem alocar nada. O
+ * {@link alefelucas.minesweeper.controller.adapter.MinesweeperAdapter} guarda uma única instância e
+ * a aplica ao botão de cada quadrado exibido.
+ *
+ * @author Álefe Lucas
+ */
+public final class CellAppearance {
+
+    private final CellStyles styles;
+    private String text;
+    private int textColor;
+    private int backgroundColor;
+
+    public CellAppearance(CellStyles styles) {
+        this.styles = styles;
+    }
+
+    /**
+     * Decide a aparência do quadrado dado: revelado, ou com o conteúdo à mostra, exibe o rótulo;
+     * escondido e marcado, a marca; escondido, nenhum texto e a cor do mapa de probabilidade, se houver.
+     *
+     * @param showing       se o conteúdo dos quadrados não revelados está à mostra
+     * @param probabilities mapa de probabilidade de minas, ou null se estiver desligado
+     */
+    public void resolve(Minesweeper minesweeper, int x, int y, boolean showing, ProbabilityMap probabilities) {
+        if (showing || minesweeper.isRevealed(x, y)) {
+            show(minesweeper.getCellLabel(x, y), this.styles.getOpenFieldColor());
+        } else if (minesweeper.isFlagged(x, y)) {
+            show(CellStyles.FLAG, this.styles.getFieldColor(0));
+        } else {
+            this.text = "";
+            this.backgroundColor = this.styles.getFieldColor(probabilities != null ? probabilities.getProbability(x, y) : 0);
+        }
+    }
+
+    private void show(char label, int backgroundColor) {
+        this.text = this.styles.getText(label);
+        this.textColor = this.styles.getTextColor(label);
+        this.backgroundColor = backgroundColor;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public int getTextColor() {
+        return this.textColor;
+    }
+
+    public int getBackgroundColor() {
+        return this.backgroundColor;
+    }
+}
@@ -0,0 +1,87 @@
+package alefelucas.minesweeper.controller.view;
+
+/**
+ * Textos e cores dos quadrados, resolvidos uma única vez para cada rótulo e compartilhados pelo
+ * {@link alefelucas.minesweeper.controller.adapter.MinesweeperAdapter} e pela {@link BoardView}, para
+ * que exibir um quadrado não aloque nada: o texto de cada rótulo é sempre a mesma String e as cores já vêm
+ * resolvidas dos recursos.
+ *
+ * @author Álefe Lucas
+ */
+public final class CellStyles {
+
+    /**
+     * Rótulo exibido nos quadrados escondidos marcados como mina.
+     */
+    public static final char FLAG = 'F';
+
+    private static final String[] TEXTS = new String[128];
+
+    static {
+        for (char label = 0; label < TEXTS.length; label++) {
+            TEXTS[label] = String.valueOf(label).intern();
+        }
+    }
+
+    private final int fieldColor;
+    private final int openFieldColor;
+    private final int probabilityColor;
+    private final int[] textColors = new int[128];
+
+    /**
+     * @param fieldColor       cor de um quadrado escondido
+     * @param openFieldColor   cor de um quadrado revelado
+     * @param probabilityColor cor de um quadrado escondido com certeza de ter mina, no mapa de probabilidade
+     * @param numberColors     cor do texto de cada número, de 1 a 8
+     * @param symbolColor      cor do texto das minas, dos neutralizadores e das marcas
+     */
+    public CellStyles(int fieldColor, int openFieldColor, int probabilityColor, int[] numberColors, int symbolColor) {
+        this.fieldColor = fieldColor;
+        this.openFieldColor = openFieldColor;
+        this.probabilityColor = probabilityColor;
+        for (int i = 0; i < numberColors.length; i++) {
+            this.textColors['1' + i] = numberColors[i];
+        }
+        this.textColors['*'] = symbolColor;
+        this.textColors['N'] = symbolColor;
+        this.textColors[FLAG] = symbolColor;
+    }
+
+    /**
+     * Retorna o texto do rótulo dado, sempre a mesma instância.
+     */
+    public String getText(char label) {
+        return TEXTS[label];
+    }
+
+    /**
+     * Retorna a cor do texto do rótulo dado.
+     */
+    public int getTextColor(char label) {
+        return this.textColors[label];
+    }
+
+    public int getOpenFieldColor() {
+        return this.openFieldColor;
+    }
+
+    /**
+     * Retorna a cor de um quadrado escondido com a probabilidade de mina dada, misturando
+     * a cor do campo com a do mapa de probabilidade.
+     */
+    public int getFieldColor(float probability) {
+        if (probability <= 0) {
+            return this.fieldColor;
+        }
+        return blend(this.fieldColor, this.probabilityColor, Math.min(1, probability));
+    }
+
+    private static int blend(int from, int to, float ratio) {
+        float inverse = 1 - ratio;
+        int a = (int) (((from >>> 24) & 0xFF) * inverse + ((to >>> 24) & 0xFF) * ratio);
+        int r = (int) (((from >> 16) & 0xFF) * inverse + ((to >> 16) & 0xFF) * ratio);
+        int g = (int) (((from >> 8) & 0xFF) * inverse + ((to >> 8) & 0xFF) * ratio);
+        int b = (int) ((from & 0xFF) * inverse + (to & 0xFF) * ratio);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,108 @@
+package alefelucas.minesweeper.controller.view;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import alefelucas.minesweeper.model.Minesweeper;
+import alefelucas.minesweeper.solver.ProbabilityMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link CellAppearance}: a decisão de como exibir um quadrado não deve alocar.
+ *
+ * @author Álefe Lucas
+ */
+public class CellAppearanceTest {
+
+    private static final int[] NUMBER_COLORS = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    private final CellStyles styles = new CellStyles(0xFFB0B0B0, 0xFFDEDEDE, 0xFFE53935, NUMBER_COLORS, 0xFF000000);
+    private final CellAppearance appearance = new CellAppearance(styles);
+
+    @Test
+    public void resolve_showsLabelFlagOrProbability() {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 10, 3);
+        minesweeper.reveal(5, 5);
+        int[] hidden = firstHidden(minesweeper, 2);
+        minesweeper.toggleFlag(hidden[0], hidden[1]);
+
+        appearance.resolve(minesweeper, 5, 5, false, null);
+        assertEquals(styles.getText(minesweeper.getCellLabel(5, 5)), appearance.getText());
+        assertEquals(0xFFDEDEDE, appearance.getBackgroundColor());
+
+        appearance.resolve(minesweeper, hidden[0], hidden[1], false, null);
+        assertEquals(styles.getText(CellStyles.FLAG), appearance.getText());
+        assertEquals(0xFFB0B0B0, appearance.getBackgroundColor());
+
+        ProbabilityMap probabilities = new ProbabilityMap(minesweeper);
+        appearance.resolve(minesweeper, hidden[2], hidden[3], false, probabilities);
+        assertEquals("", appearance.getText());
+        assertEquals(styles.getFieldColor(probabilities.getProbability(hidden[2], hidden[3])), appearance.getBackgroundColor());
+
+        appearance.resolve(minesweeper, hidden[2], hidden[3], true, probabilities);
+        assertEquals(styles.getText(minesweeper.getCellLabel(hidden[2], hidden[3])), appearance.getText());
+        assertEquals(0xFFDEDEDE, appearance.getBackgroundColor());
+    }
+
+    @Test
+    public void resolve_allocatesNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Minesweeper minesweeper = new Minesweeper(100, 100, 1500, 7);
+        minesweeper.reveal(50, 50);
+        int[] hidden = firstHidden(minesweeper, 1);
+        minesweeper.toggleFlag(hidden[0], hidden[1]);
+        ProbabilityMap probabilities = new ProbabilityMap(minesweeper);
+
+        long sink = resolveAll(minesweeper, probabilities);
+        for (int i = 0; i < 20; i++) {
+            sink += resolveAll(minesweeper, probabilities);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        sink += resolveAll(minesweeper, probabilities);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(sink != 0);
+        assertEquals(0, allocated);
+    }
+
+    /**
+     * Decide a aparência de cada quadrado do campo, escondidos e à mostra, como o
+     * {@link alefelucas.minesweeper.controller.adapter.MinesweeperAdapter} ao exibi-los.
+     */
+    private long resolveAll(Minesweeper minesweeper, ProbabilityMap probabilities) {
+        long sink = 0;
+        int width = minesweeper.getWidth();
+        for (int position = 0; position < width * minesweeper.getHeight(); position++) {
+            for (int showing = 0; showing < 2; showing++) {
+                appearance.resolve(minesweeper, position % width, position / width, showing == 1, probabilities);
+                sink += appearance.getText().length() + appearance.getTextColor() + appearance.getBackgroundColor();
+            }
+        }
+        return sink;
+    }
+
+    /**
+     * Retorna as coordenadas x e y dos primeiros quadrados escondidos, em sequência.
+     */
+    private static int[] firstHidden(Minesweeper minesweeper, int count) {
+        int[] found = new int[2 * count];
+        int width = minesweeper.getWidth();
+        for (int position = 0, i = 0; i < found.length; position++) {
+            if (!minesweeper.isRevealed(position % width, position / width)) {
+                found[i++] = position % width;
+                found[i++] = position / width;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,31 @@
+package alefelucas.minesweeper.controller.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link CellStyles}.
+ *
+ * @author Álefe Lucas
+ */
+public class CellStylesTest {
+
+    private static final int[] NUMBER_COLORS = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    private final CellStyles styles = new CellStyles(0xFFB0B0B0, 0xFFDEDEDE, 0xFFE53935, NUMBER_COLORS, 0xFF000000);
+
+    @Test
+    public void getText_returnsSameInstanceForEachLabel() {
+        assertSame(styles.getText('3'), styles.getText('3'));
+        assertEquals("*", styles.getText('*'));
+        assertEquals(3, styles.getTextColor('3'));
+        assertEquals(0xFF000000, styles.getTextColor('N'));
+    }
+
+    @Test
+    public void getFieldColor_blendsTowardProbabilityColor() {
+        assertEquals(0xFFB0B0B0, styles.getFieldColor(0));
+        assertEquals(0xFFE53935, styles.getFieldColor(1));
+    }
+}
@@ -0,0 +1,74 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara revelar um conjunto de posições seguras com uma chamada de {@link Minesweeper#reveal(int, int)}
+ * por posição, cada uma com a sua cópia das posições e a sua decisão de status, com uma única chamada
+ * de {@link Minesweeper#revealAll(int[])}. As posições são todos os quadrados seguros ainda escondidos
+ * depois do primeiro toque, como as deduções de um solver numa partida inteira.
+ *
+ * @author Álefe Lucas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchRevealBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"0.1", "0.2"})
+    private double density;
+
+    private byte[] snapshot;
+    private int[] positions;
+    private Minesweeper minesweeper;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        Minesweeper minesweeper = new Minesweeper(size, size, (int) (size * size * density), 42L);
+        minesweeper.reveal(size / 2, size / 2);
+        this.snapshot = MinesweeperSnapshot.toBytes(minesweeper);
+        int[] positions = new int[size * size];
+        int count = 0;
+        for (int position = 0; position < size * size; position++) {
+            int x = position % size;
+            int y = position / size;
+            if (!minesweeper.isRevealed(x, y) && minesweeper.getCellLabel(x, y) != '*') {
+                positions[count++] = position;
+            }
+        }
+        this.positions = Arrays.copyOf(positions, count);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        this.minesweeper = MinesweeperSnapshot.fromBytes(this.snapshot);
+    }
+
+    @Benchmark
+    public int sequential() {
+        int revealed = 0;
+        for (int position : this.positions) {
+            revealed += this.minesweeper.reveal(position % size, position / size).length;
+        }
+        return revealed;
+    }
+
+    @Benchmark
+    public int batch() {
+        return this.minesweeper.revealAll(this.positions).length;
+    }
+}
@@ -0,0 +1,57 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a vazão de revelações de vários jogadores num mesmo {@link ConcurrentMinesweeper}. O campo
+ * é recriado a cada iteração; o número de threads pode ser trocado com {@code -t}.
+ *
+ * @author Álefe Lucas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class ConcurrentRevealBenchmark {
+
+    @Param({"1000", "2000"})
+    private int size;
+
+    @Param({"0.1", "0.2"})
+    private double density;
+
+    private ConcurrentMinesweeper minesweeper;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.minesweeper = new ConcurrentMinesweeper(size, size, (int) (size * size * density), 42L);
+        this.minesweeper.reveal(size / 2, size / 2);
+    }
+
+    @State(Scope.Thread)
+    public static class Player {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public int[] reveal(Player player) {
+        int x = player.random.nextInt(size);
+        int y = player.random.nextInt(size);
+        if (this.minesweeper.getCellLabel(x, y) == '*') {
+            return null;
+        }
+        return this.minesweeper.reveal(x, y);
+    }
+}
@@ -0,0 +1,33 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a construção de um {@link Minesweeper}, antes da distribuição das minas.
+ *
+ * @author Álefe Lucas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConstructionBenchmark {
+
+    @Param({"10", "100", "1000", "2000"})
+    private int size;
+
+    @Param({"0.1", "0.2", "0.5"})
+    private double density;
+
+    @Benchmark
+    public Minesweeper construct() {
+        return new Minesweeper(size, size, (int) (size * size * density), 42L);
+    }
+}
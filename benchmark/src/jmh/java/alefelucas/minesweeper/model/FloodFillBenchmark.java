@@ -0,0 +1,80 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pior caso da revelação: um campo sem minas, em que um toque no canto abre todos os quadrados.
+ * <p>
+ * Como no {@link RevealBenchmark}, os campos pequenos ({@link Small}) são abertos em lotes de
+ * {@link RevealBenchmark#BOARDS} por invocação, e só os grandes ({@link Large}) um por invocação.
+ *
+ * @author Álefe Lucas
+ */
+public class FloodFillBenchmark {
+
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class Small {
+
+        @Param({"10", "100"})
+        private int size;
+
+        private final Minesweeper[] boards = new Minesweeper[RevealBenchmark.BOARDS];
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            for (int i = 0; i < this.boards.length; i++) {
+                this.boards[i] = board(size);
+            }
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(RevealBenchmark.BOARDS)
+        public int floodFill() {
+            int revealed = 0;
+            for (Minesweeper minesweeper : this.boards) {
+                revealed += minesweeper.reveal(0, 0).length;
+            }
+            return revealed;
+        }
+    }
+
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class Large {
+
+        @Param({"1000", "2000"})
+        private int size;
+
+        private Minesweeper minesweeper;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            this.minesweeper = board(size);
+        }
+
+        @Benchmark
+        public int[] floodFill() {
+            return this.minesweeper.reveal(0, 0);
+        }
+    }
+
+    private static Minesweeper board(int size) {
+        Minesweeper minesweeper = new Minesweeper(size, size, 0, 42L);
+        minesweeper.init(0, 0);
+        return minesweeper;
+    }
+}
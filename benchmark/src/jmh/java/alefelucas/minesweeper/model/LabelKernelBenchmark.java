@@ -0,0 +1,61 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o cálculo dos rótulos de todo o campo pelo {@link LabelKernel}, 64 quadrados por vez,
+ * com o cálculo quadrado a quadrado, sobre as mesmas minas e neutralizadores.
+ *
+ * @author Álefe Lucas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LabelKernelBenchmark {
+
+    @Param({"1000", "2000", "4000"})
+    private int size;
+
+    @Param({"0.1", "0.2", "0.5"})
+    private double density;
+
+    private long[] mines;
+    private long[] neutralizers;
+    private byte[] cells;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        this.mines = LabelKernel.newBoard(size, size);
+        this.neutralizers = LabelKernel.newBoard(size, size);
+        for (int position = 0; position < size * size; position++) {
+            if (random.nextDouble() < density) {
+                LabelKernel.set(this.mines, size, position);
+            }
+        }
+        LabelKernel.set(this.neutralizers, size, size * size / 2);
+        this.cells = new byte[size * size];
+    }
+
+    @Benchmark
+    public byte[] scalar() {
+        LabelKernel.labelScalar(this.mines, this.neutralizers, size, size, this.cells);
+        return this.cells;
+    }
+
+    @Benchmark
+    public byte[] bitboard() {
+        LabelKernel.label(this.mines, this.neutralizers, size, size, this.cells);
+        return this.cells;
+    }
+}
@@ -0,0 +1,62 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lê o rótulo de todos os quadrados do campo com {@link Minesweeper#getCellLabel(int, int)},
+ * como faz uma exibição completa do campo, e com uma única leitura em bloco por
+ * {@link Minesweeper#readRegion(int, int, int, int, byte[], int)}.
+ *
+ * @author Álefe Lucas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LabelScanBenchmark {
+
+    @Param({"10", "100", "1000", "2000"})
+    private int size;
+
+    @Param({"0.1", "0.2", "0.5"})
+    private double density;
+
+    private Minesweeper minesweeper;
+    private byte[] region;
+
+    @Setup
+    public void setUp() {
+        this.minesweeper = new Minesweeper(size, size, (int) (size * size * density), 42L);
+        this.minesweeper.init(size / 2, size / 2);
+        this.region = new byte[size * size];
+    }
+
+    @Benchmark
+    public int scanLabels() {
+        int sum = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                sum += this.minesweeper.getCellLabel(x, y);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int scanRegion() {
+        this.minesweeper.readRegion(0, 0, size, size, this.region, 0);
+        int sum = 0;
+        for (byte cell : this.region) {
+            sum += Minesweeper.toLabel(cell);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,81 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o tempo de distribuição das minas e neutralizadores ({@link Minesweeper#init(int, int)})
+ * em função do tamanho do campo e da densidade de minas.
+ * <p>
+ * Como no {@link RevealBenchmark}, os campos pequenos ({@link Small}) são gerados em lotes de
+ * {@link RevealBenchmark#BOARDS} por invocação, e só os grandes ({@link Large}) um por invocação.
+ *
+ * @author Álefe Lucas
+ */
+public class PlacementBenchmark {
+
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class Small {
+
+        @Param({"10", "100"})
+        private int size;
+
+        @Param({"0.1", "0.5", "0.9", "0.99"})
+        private double density;
+
+        private final Minesweeper[] boards = new Minesweeper[RevealBenchmark.BOARDS];
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            for (int i = 0; i < this.boards.length; i++) {
+                this.boards[i] = new Minesweeper(size, size, (int) (size * size * density), 42L);
+            }
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(RevealBenchmark.BOARDS)
+        public Minesweeper[] init() {
+            for (Minesweeper minesweeper : this.boards) {
+                minesweeper.init(size / 2, size / 2);
+            }
+            return this.boards;
+        }
+    }
+
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class Large {
+
+        @Param({"1000", "2000"})
+        private int size;
+
+        @Param({"0.1", "0.5", "0.9", "0.99"})
+        private double density;
+
+        private Minesweeper minesweeper;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            this.minesweeper = new Minesweeper(size, size, (int) (size * size * density), 42L);
+        }
+
+        @Benchmark
+        public Minesweeper init() {
+            this.minesweeper.init(size / 2, size / 2);
+            return this.minesweeper;
+        }
+    }
+}
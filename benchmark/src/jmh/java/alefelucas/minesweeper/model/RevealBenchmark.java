@@ -0,0 +1,94 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede um único {@link Minesweeper#reveal(int, int)} no centro de um campo já gerado.
+ * O tamanho da área aberta depende da densidade de minas.
+ * <p>
+ * Cada revelação precisa de um campo novo, gerado fora da medição por {@link Level#Invocation}, que
+ * só é confiável para invocações de um milissegundo ou mais. Nos campos pequenos, {@link Small}
+ * gera {@link #BOARDS} campos por invocação e revela todos eles; nos grandes, {@link Large} revela
+ * um campo por invocação.
+ *
+ * @author Álefe Lucas
+ */
+public class RevealBenchmark {
+
+    /**
+     * Quantidade de campos revelados por invocação nos campos pequenos.
+     */
+    static final int BOARDS = 256;
+
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class Small {
+
+        @Param({"10", "100"})
+        private int size;
+
+        @Param({"0.1", "0.2", "0.5"})
+        private double density;
+
+        private final Minesweeper[] boards = new Minesweeper[BOARDS];
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            for (int i = 0; i < BOARDS; i++) {
+                this.boards[i] = board(size, density);
+            }
+        }
+
+        @Benchmark
+        @OperationsPerInvocation(BOARDS)
+        public int reveal() {
+            int revealed = 0;
+            for (Minesweeper minesweeper : this.boards) {
+                revealed += minesweeper.reveal(size / 2, size / 2).length;
+            }
+            return revealed;
+        }
+    }
+
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public static class Large {
+
+        @Param({"1000", "2000"})
+        private int size;
+
+        @Param({"0.1", "0.2", "0.5"})
+        private double density;
+
+        private Minesweeper minesweeper;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            this.minesweeper = board(size, density);
+        }
+
+        @Benchmark
+        public int[] reveal() {
+            return this.minesweeper.reveal(size / 2, size / 2);
+        }
+    }
+
+    private static Minesweeper board(int size, double density) {
+        Minesweeper minesweeper = new Minesweeper(size, size, (int) (size * size * density), 42L);
+        minesweeper.init(size / 2, size / 2);
+        return minesweeper;
+    }
+}
@@ -0,0 +1,82 @@
+package alefelucas.minesweeper.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a varredura dos vizinhos de todo o campo pela tabela de {@link Topology}, sem testes de
+ * limite, com a varredura por deslocamentos (x, y) com teste de limite usada antes, e mede a
+ * revelação de um campo sem minas, que visita cada quadrado e seus vizinhos uma vez, em cada vizinhança.
+ *
+ * @author Álefe Lucas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TopologyBenchmark {
+
+    private static final int[] NEIGHBORS_DELTA = {-1, -1, 0, -1, 1, -1, -1, 0, 1, 0, -1, 1, 0, 1, 1, 1};
+
+    @Param({"1000", "2000"})
+    private int size;
+
+    @Param({"SQUARE", "TORUS", "HEX"})
+    private Topology.Kind kind;
+
+    private Topology topology;
+    private byte[] cells;
+
+    @Setup
+    public void setUp() {
+        this.topology = Topology.of(kind, size, size);
+        this.cells = new byte[size * size];
+        for (int position = 0; position < this.cells.length; position += 7) {
+            this.cells[position] = 1;
+        }
+    }
+
+    @Benchmark
+    public int boundsChecked() {
+        int sum = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                for (int i = 0; i < NEIGHBORS_DELTA.length; i += 2) {
+                    int neighborX = x + NEIGHBORS_DELTA[i];
+                    int neighborY = y + NEIGHBORS_DELTA[i + 1];
+                    if (neighborX >= 0 && neighborX < size && neighborY >= 0 && neighborY < size) {
+                        sum += this.cells[size * neighborY + neighborX];
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int table() {
+        byte[] classes = this.topology.classes;
+        int[] starts = this.topology.starts;
+        int[] deltas = this.topology.deltas;
+        int sum = 0;
+        for (int position = 0; position < this.cells.length; position++) {
+            int cellClass = classes[position];
+            for (int i = starts[cellClass], end = starts[cellClass + 1]; i < end; i++) {
+                sum += this.cells[position + deltas[i]];
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int floodFill() {
+        return new Minesweeper(this.topology, 0, 1).reveal(size / 2, size / 2).length;
+    }
+}
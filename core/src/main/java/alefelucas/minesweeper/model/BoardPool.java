@@ -0,0 +1,164 @@
+package alefelucas.minesweeper.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fábrica de jogos {@link Minesweeper} de um mesmo tamanho e quantidade de minas, gerados
+ * antecipadamente num {@link Executor} em segundo plano. Os campos ficam numa fila limitada
+ * e são gerados com {@link Minesweeper#prepare(int, int)}, de forma que tanto obter um novo
+ * jogo quanto o primeiro toque nele levam tempo constante na thread que os consome.
+ *
+ * @author Álefe Lucas
+ */
+public class BoardPool {
+
+    private final int height;
+    private final int width;
+    private final int mineQuantity;
+    private final int capacity;
+
+    private final Executor executor;
+    private final Generator generator;
+    private final BlockingQueue<Minesweeper> boards;
+
+    /**
+     * Quantidade de campos prontos ou em geração, nunca maior que a capacidade da fila.
+     */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /**
+     * Se o pool foi fechado por {@link #close()}; as gerações ainda na fila do executor são puladas.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Chamado no executor a cada campo colocado na fila, ou null.
+     */
+    private volatile Runnable onBoardReady;
+
+    /**
+     * Constrói o {@link BoardPool} e já agenda a geração dos primeiros campos.
+     *
+     * @param height       altura
+     * @param width        largura
+     * @param mineQuantity quantidade de minas
+     * @param capacity     quantidade máxima de campos gerados à espera
+     * @param executor     executor em segundo plano onde os campos são gerados
+     */
+    public BoardPool(int height, int width, int mineQuantity, int capacity, Executor executor) {
+        this(height, width, mineQuantity, capacity, executor, null);
+    }
+
+    /**
+     * Constrói o {@link BoardPool} com um gerador de campos próprio, como o de campos sem chute.
+     *
+     * @param generator gerador dos campos, ou null para gerar com {@link Minesweeper#prepare(int, int)}
+     */
+    public BoardPool(int height, int width, int mineQuantity, int capacity, Executor executor, Generator generator) {
+        this.height = height;
+        this.width = width;
+        this.mineQuantity = mineQuantity;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.generator = generator;
+        this.boards = new ArrayBlockingQueue<>(capacity);
+        refill();
+    }
+
+    /**
+     * Obtém um jogo novo. Se nenhum campo gerado estiver pronto, retorna um jogo que será gerado
+     * no primeiro toque, como antes. Em ambos os casos agenda a reposição da fila.
+     */
+    public Minesweeper take() {
+        Minesweeper minesweeper = this.boards.poll();
+        if (minesweeper != null) {
+            this.reserved.decrementAndGet();
+        } else {
+            minesweeper = new Minesweeper(this.height, this.width, this.mineQuantity);
+        }
+        refill();
+        return minesweeper;
+    }
+
+    /**
+     * Retorna se há um campo gerado pronto, que o próximo {@link #take()} entrega.
+     */
+    public boolean isReady() {
+        return !this.boards.isEmpty();
+    }
+
+    /**
+     * Define o que chamar, na thread do executor, a cada campo gerado colocado na fila.
+     *
+     * @param onBoardReady tarefa chamada, ou null para não chamar nada
+     */
+    public void setOnBoardReady(Runnable onBoardReady) {
+        this.onBoardReady = onBoardReady;
+    }
+
+    /**
+     * Fecha o pool quando ele é trocado por outro: as gerações ainda na fila do executor são puladas,
+     * e nenhuma nova é agendada. Uma geração já em andamento termina, mas o seu campo é descartado.
+     */
+    public void close() {
+        this.closed = true;
+        this.onBoardReady = null;
+        this.boards.clear();
+    }
+
+    /**
+     * Agenda a geração de campos até completar a capacidade da fila.
+     */
+    private void refill() {
+        while (!this.closed) {
+            int reserved = this.reserved.get();
+            if (reserved >= this.capacity) {
+                return;
+            }
+            if (this.reserved.compareAndSet(reserved, reserved + 1)) {
+                this.executor.execute(this::generate);
+            }
+        }
+    }
+
+    /**
+     * Gera um campo com o gerador, ou com a área livre no centro, e o coloca na fila. Se a geração
+     * falhar, a reserva é devolvida, e o próximo {@link #take()} agenda outra geração.
+     */
+    private void generate() {
+        Minesweeper minesweeper = null;
+        try {
+            if (this.closed) {
+                return;
+            }
+            if (this.generator != null) {
+                minesweeper = this.generator.generate(this.height, this.width, this.mineQuantity);
+            } else {
+                minesweeper = new Minesweeper(this.height, this.width, this.mineQuantity);
+                minesweeper.prepare(this.width / 2, this.height / 2);
+            }
+        } finally {
+            if (minesweeper == null || this.closed || !this.boards.offer(minesweeper)) {
+                this.reserved.decrementAndGet();
+            }
+        }
+        Runnable onBoardReady = this.onBoardReady;
+        if (onBoardReady != null) {
+            onBoardReady.run();
+        }
+    }
+
+    /**
+     * Gerador dos campos do {@link BoardPool}, chamado no executor em segundo plano.
+     */
+    public interface Generator {
+
+        /**
+         * Gera um jogo com o tamanho e a quantidade de minas dados.
+         */
+        Minesweeper generate(int height, int width, int mineQuantity);
+    }
+}
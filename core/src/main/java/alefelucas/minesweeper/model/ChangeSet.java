@@ -0,0 +1,97 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de posições alteradas por uma jogada, agrupadas em intervalos ordenados e sem
+ * sobreposição. Posições consecutivas formam um único intervalo, então uma área aberta de
+ * qualquer tamanho é descrita por no máximo um intervalo por linha do campo.
+ *
+ * @author Álefe Lucas
+ */
+public final class ChangeSet {
+
+    private static final ChangeSet EMPTY = new ChangeSet(new int[0], 0);
+
+    /**
+     * Início e tamanho de cada intervalo, em pares.
+     */
+    private final int[] ranges;
+    private final int size;
+
+    private ChangeSet(int[] ranges, int size) {
+        this.ranges = ranges;
+        this.size = size;
+    }
+
+    /**
+     * Agrupa as posições dadas, em qualquer ordem e com possíveis repetições, em intervalos.
+     * O vetor dado não é alterado.
+     */
+    public static ChangeSet of(int[] positions) {
+        if (positions.length == 0) {
+            return EMPTY;
+        }
+        int[] sorted = positions.clone();
+        Arrays.sort(sorted);
+
+        int[] ranges = new int[16];
+        int size = 0;
+        int start = sorted[0];
+        int end = start + 1;
+        for (int i = 1; i < sorted.length; i++) {
+            int position = sorted[i];
+            if (position > end) {
+                ranges = add(ranges, size++, start, end);
+                start = position;
+            }
+            end = Math.max(end, position + 1);
+        }
+        ranges = add(ranges, size++, start, end);
+        return new ChangeSet(ranges, size);
+    }
+
+    /**
+     * Retorna um conjunto com o único intervalo {@code [start, start + count)}.
+     */
+    public static ChangeSet range(int start, int count) {
+        return count <= 0 ? EMPTY : new ChangeSet(new int[]{start, count}, 1);
+    }
+
+    private static int[] add(int[] ranges, int index, int start, int end) {
+        if (2 * index + 2 > ranges.length) {
+            ranges = Arrays.copyOf(ranges, ranges.length * 2);
+        }
+        ranges[2 * index] = start;
+        ranges[2 * index + 1] = end - start;
+        return ranges;
+    }
+
+    /**
+     * Retorna a quantidade de intervalos.
+     */
+    public int getRangeCount() {
+        return size;
+    }
+
+    /**
+     * Retorna a primeira posição do intervalo dado.
+     */
+    public int getStart(int range) {
+        return ranges[2 * range];
+    }
+
+    /**
+     * Retorna a quantidade de posições do intervalo dado.
+     */
+    public int getCount(int range) {
+        return ranges[2 * range + 1];
+    }
+
+    /**
+     * Retorna se nenhuma posição foi alterada.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
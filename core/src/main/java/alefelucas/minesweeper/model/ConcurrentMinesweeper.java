@@ -0,0 +1,211 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static alefelucas.minesweeper.model.Minesweeper.DEAD;
+import static alefelucas.minesweeper.model.Minesweeper.LABELS;
+import static alefelucas.minesweeper.model.Minesweeper.LABEL_MASK;
+import static alefelucas.minesweeper.model.Minesweeper.LABEL_MINE;
+
+/**
+ * Campo minado compartilhado, em que vários jogadores revelam quadrados ao mesmo tempo, de
+ * threads diferentes.
+ * <p>
+ * O campo é gerado uma única vez, no primeiro toque, pelo {@link Minesweeper} com a mesma semente;
+ * a partir daí os rótulos só são lidos. O estado de revelado fica num mapa de bits de
+ * {@link AtomicLongArray}, e cada quadrado é tomado por uma única thread com compare-and-set, então
+ * áreas vazias abertas em paralelo se dividem entre as threads sem que nenhum quadrado seja
+ * contado duas vezes. Cada revelação soma os seus quadrados ao contador de uma só vez, e a
+ * vitória ou derrota é decidida por um compare-and-set no status: só o primeiro fim de jogo vale.
+ *
+ * @author Álefe Lucas
+ */
+public class ConcurrentMinesweeper {
+
+    private static final int[] NEIGHBORS_DELTA = {-1, -1, 0, -1, 1, -1, -1, 0, 1, 0, -1, 1, 0, 1, 1, 1};
+
+    private static final int PLAYING = 0;
+
+    private final int width;
+    private final int height;
+    private final int requestedMines;
+    private final long seed;
+
+    /**
+     * Rótulos e neutralizações dos quadrados, no formato do {@link Minesweeper}. Publicado uma única
+     * vez, já preenchido, pela thread que gerou o campo.
+     */
+    private volatile byte[] cells;
+    private int mineQuantity;
+
+    private final AtomicLongArray revealed;
+    private final AtomicInteger revealedCellsQuantity = new AtomicInteger();
+
+    /**
+     * {@link #PLAYING} ou o {@link GameStatus#ordinal()} do fim de jogo mais um.
+     */
+    private final AtomicInteger status = new AtomicInteger(PLAYING);
+
+    /**
+     * Constrói o campo compartilhado com a semente dada.
+     *
+     * @param height       altura
+     * @param width        largura
+     * @param mineQuantity quantidade de minas
+     * @param seed         semente do sorteio
+     */
+    public ConcurrentMinesweeper(int height, int width, int mineQuantity, long seed) {
+        this.width = width;
+        this.height = height;
+        this.requestedMines = mineQuantity;
+        this.seed = seed;
+        this.revealed = new AtomicLongArray((width * height + 63) >>> 6);
+    }
+
+    /**
+     * Revela a posição dada e, se ela não tiver minas na vizinhança, a área vazia ao redor. Pode
+     * ser chamado de qualquer thread. Quadrados já tomados por outra revelação, mesmo em andamento,
+     * não são revelados de novo. Depois do fim do jogo, nada é revelado.
+     *
+     * @return as posições reveladas por esta chamada.
+     */
+    public int[] reveal(int x, int y) {
+        byte[] cells = board(x, y);
+        if (this.status.get() != PLAYING) {
+            return new int[0];
+        }
+        int start = this.width * y + x;
+        if (!claim(start)) {
+            return new int[0];
+        }
+
+        int[] queue = new int[16];
+        int head = 0;
+        int tail = 0;
+        int safe = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int position = queue[head++];
+            int label = cells[position] & LABEL_MASK;
+            if (label != LABEL_MINE) {
+                safe++;
+            }
+            if (label != 0) {
+                continue;
+            }
+            int cellX = position % this.width;
+            int cellY = position / this.width;
+            for (int i = 0; i < NEIGHBORS_DELTA.length; i += 2) {
+                int neighborX = cellX + NEIGHBORS_DELTA[i];
+                int neighborY = cellY + NEIGHBORS_DELTA[i + 1];
+                if (neighborX >= 0 && neighborX < this.width && neighborY >= 0 && neighborY < this.height) {
+                    int neighbor = this.width * neighborY + neighborX;
+                    if (claim(neighbor)) {
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail * 2);
+                        }
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+
+        byte cell = cells[start];
+        if ((cell & LABEL_MASK) == LABEL_MINE && (cell & DEAD) == 0) {
+            this.status.compareAndSet(PLAYING, GameStatus.LOST.ordinal() + 1);
+        }
+        if (this.revealedCellsQuantity.addAndGet(safe) >= this.width * this.height - this.mineQuantity) {
+            this.status.compareAndSet(PLAYING, GameStatus.WON.ordinal() + 1);
+        }
+        return Arrays.copyOf(queue, tail);
+    }
+
+    /**
+     * Retorna o campo, gerando-o na primeira chamada com a área livre ao redor da posição dada.
+     * Só uma thread gera o campo; as demais esperam por ele.
+     */
+    private byte[] board(int x, int y) {
+        byte[] cells = this.cells;
+        if (cells == null) {
+            synchronized (this) {
+                cells = this.cells;
+                if (cells == null) {
+                    Minesweeper generator = new Minesweeper(this.height, this.width, this.requestedMines, this.seed);
+                    generator.generate(x, y);
+                    cells = new byte[this.width * this.height];
+                    generator.readRegion(0, 0, this.width, this.height, cells, 0);
+                    this.mineQuantity = generator.getMineQuantity();
+                    this.cells = cells;
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Marca a posição como revelada, se ainda não estiver.
+     *
+     * @return se esta chamada a marcou.
+     */
+    private boolean claim(int position) {
+        int index = position >>> 6;
+        long bit = 1L << position;
+        long word;
+        do {
+            word = this.revealed.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!this.revealed.compareAndSet(index, word, word | bit));
+        return true;
+    }
+
+    /**
+     * Retorna se a posição dada está revelada.
+     */
+    public boolean isRevealed(int x, int y) {
+        int position = this.width * y + x;
+        return (this.revealed.get(position >>> 6) & (1L << position)) != 0;
+    }
+
+    /**
+     * Obtém o rótulo da posição dada, como em {@link Minesweeper#getCellLabel(int, int)}. Antes do
+     * primeiro toque, todos os quadrados são vazios.
+     */
+    public char getCellLabel(int x, int y) {
+        byte[] cells = this.cells;
+        return cells == null ? LABELS[0] : LABELS[cells[this.width * y + x] & LABEL_MASK];
+    }
+
+    /**
+     * Retorna o status do jogo.
+     */
+    public GameStatus getStatus() {
+        int status = this.status.get();
+        return status == PLAYING ? GameStatus.PLAYING : GameStatus.values()[status - 1];
+    }
+
+    /**
+     * Retorna a quantidade de quadrados sem mina revelados.
+     */
+    public int getRevealedCellsQuantity() {
+        return this.revealedCellsQuantity.get();
+    }
+
+    /**
+     * Retorna a quantidade de minas do jogo; depois do primeiro toque, já limitada ao espaço do campo.
+     */
+    public int getMineQuantity() {
+        return this.cells == null ? this.requestedMines : this.mineQuantity;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,370 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static alefelucas.minesweeper.model.GameStatus.LOST;
+import static alefelucas.minesweeper.model.GameStatus.PLAYING;
+import static alefelucas.minesweeper.model.Minesweeper.LABELS;
+import static alefelucas.minesweeper.model.Minesweeper.LABEL_MASK;
+import static alefelucas.minesweeper.model.Minesweeper.LABEL_MINE;
+import static alefelucas.minesweeper.model.Minesweeper.REVEALED;
+
+/**
+ * Campo minado sem fim: o campo não tem bordas e é dividido em pedaços de
+ * {@link #CHUNK_SIZE}x{@link #CHUNK_SIZE} quadrados, gerados só quando acessados.
+ * <p>
+ * Se um quadrado tem mina é decidido por uma função de espalhamento da semente e das suas
+ * coordenadas, então qualquer pedaço pode ser gerado de novo, de forma idêntica, a qualquer
+ * momento, inclusive os rótulos da borda, que dependem dos pedaços vizinhos. Os pedaços gerados
+ * usam o mesmo formato de byte por quadrado do {@link Minesweeper} e ficam num cache LRU
+ * limitado; ao sair do cache, um pedaço com quadrados revelados é compactado num mapa de bits
+ * de 128 bytes e os demais são descartados. Assim, a memória cresce com a área explorada, e
+ * não com o tamanho do campo.
+ * <p>
+ * Este modo não tem neutralizadores nem vitória: o jogo só termina ao revelar uma mina. Como
+ * uma área vazia pode ser arbitrariamente grande em densidades baixas, cada revelação abre no
+ * máximo {@link #SPREAD_BUDGET} quadrados; o restante fica pendente e é aberto por
+ * {@link #continueSpread()}.
+ *
+ * @author Álefe Lucas
+ */
+public class EndlessMinesweeper {
+
+    private static final int CHUNK_BITS = 5;
+
+    /**
+     * Lado de um pedaço do campo, em quadrados.
+     */
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Quantidade máxima de quadrados abertos por uma revelação.
+     */
+    public static final int SPREAD_BUDGET = 1 << 16;
+
+    private static final int[] NEIGHBORS_DELTA = {-1, -1, 0, -1, 1, -1, -1, 0, 1, 0, -1, 1, 0, 1, 1, 1};
+
+    private final long seed;
+
+    /**
+     * Limite do espalhamento abaixo do qual um quadrado tem mina, na escala de 53 bits.
+     */
+    private final long threshold;
+
+    private final Map<Long, byte[]> chunks;
+    private final Map<Long, long[]> compacted = new HashMap<>();
+
+    private GameStatus status = PLAYING;
+    private boolean initialized;
+    private int initialX;
+    private int initialY;
+    private long revealedCellsQuantity;
+
+    /**
+     * Fila circular das posições reveladas cujos vizinhos ainda não foram abertos.
+     */
+    private long[] pending = new long[64];
+    private int pendingHead;
+    private int pendingSize;
+
+    /**
+     * Constrói o campo sem fim.
+     *
+     * @param density   fração dos quadrados que têm minas, entre 0 e 1
+     * @param seed      semente do campo
+     * @param maxChunks quantidade máxima de pedaços mantidos gerados na memória
+     */
+    public EndlessMinesweeper(double density, long seed, final int maxChunks) {
+        this.seed = seed;
+        this.threshold = (long) (density * (1L << 53));
+        this.chunks = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                if (size() <= maxChunks) {
+                    return false;
+                }
+                compact(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Revela o quadrado dado e, se ele não tiver minas na vizinhança, abre a área vazia ao redor,
+     * até {@link #SPREAD_BUDGET} quadrados.
+     *
+     * @return as posições reveladas, codificadas com {@link #cell(int, int)}.
+     */
+    public long[] reveal(int x, int y) {
+        if (!this.initialized) {
+            this.initialX = x;
+            this.initialY = y;
+            this.initialized = true;
+            this.chunks.clear();
+        }
+        if (this.status != PLAYING || isRevealed(x, y)) {
+            return new long[0];
+        }
+
+        long[] revealed = new long[16];
+        int count = 0;
+        byte[] chunk = chunk(x, y);
+        int index = index(x, y);
+        chunk[index] |= REVEALED;
+        revealed[count++] = cell(x, y);
+        if ((chunk[index] & LABEL_MASK) == LABEL_MINE) {
+            this.status = LOST;
+            return Arrays.copyOf(revealed, count);
+        }
+        this.revealedCellsQuantity++;
+        if ((chunk[index] & LABEL_MASK) == 0) {
+            push(cell(x, y));
+        }
+        return spread(revealed, count);
+    }
+
+    /**
+     * Retorna se ainda há área vazia a abrir, deixada por uma revelação que atingiu o limite.
+     */
+    public boolean hasPendingSpread() {
+        return this.pendingSize > 0;
+    }
+
+    /**
+     * Continua abrindo a área vazia pendente, até {@link #SPREAD_BUDGET} quadrados.
+     *
+     * @return as posições reveladas, codificadas com {@link #cell(int, int)}.
+     */
+    public long[] continueSpread() {
+        return spread(new long[16], 0);
+    }
+
+    /**
+     * Abre os vizinhos das posições pendentes, enquanto houver orçamento. O orçamento é conferido a
+     * cada vizinho; se ele acabar no meio dos vizinhos de uma posição, ela volta à fila pendente e os
+     * vizinhos que faltam são abertos pelo próximo {@link #continueSpread()}.
+     */
+    private long[] spread(long[] revealed, int count) {
+        while (this.pendingSize > 0 && count < SPREAD_BUDGET) {
+            long cell = poll();
+            int cellX = x(cell);
+            int cellY = y(cell);
+            for (int i = 0; i < NEIGHBORS_DELTA.length; i += 2) {
+                int neighborX = cellX + NEIGHBORS_DELTA[i];
+                int neighborY = cellY + NEIGHBORS_DELTA[i + 1];
+                byte[] chunk = chunk(neighborX, neighborY);
+                int index = index(neighborX, neighborY);
+                if ((chunk[index] & REVEALED) != 0) {
+                    continue;
+                }
+                if (count == SPREAD_BUDGET) {
+                    push(cell);
+                    break;
+                }
+                chunk[index] |= REVEALED;
+                this.revealedCellsQuantity++;
+                if (count == revealed.length) {
+                    revealed = Arrays.copyOf(revealed, count * 2);
+                }
+                revealed[count++] = cell(neighborX, neighborY);
+                if ((chunk[index] & LABEL_MASK) == 0) {
+                    push(cell(neighborX, neighborY));
+                }
+            }
+        }
+        return Arrays.copyOf(revealed, count);
+    }
+
+    /**
+     * Retorna se a posição dada está revelada, sem gerar o pedaço caso ele nunca tenha sido acessado.
+     */
+    public boolean isRevealed(int x, int y) {
+        long key = key(x, y);
+        byte[] chunk = this.chunks.get(key);
+        if (chunk != null) {
+            return (chunk[index(x, y)] & REVEALED) != 0;
+        }
+        long[] bits = this.compacted.get(key);
+        int index = index(x, y);
+        return bits != null && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Obtém o rótulo da posição dada: vazio (espaço), número ou asterisco.
+     */
+    public char getCellLabel(int x, int y) {
+        return LABELS[chunk(x, y)[index(x, y)] & LABEL_MASK];
+    }
+
+    /**
+     * Retorna o status do jogo: jogando ou perdido.
+     */
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Retorna a quantidade de quadrados sem mina revelados.
+     */
+    public long getRevealedCellsQuantity() {
+        return revealedCellsQuantity;
+    }
+
+    /**
+     * Retorna a quantidade de pedaços gerados na memória.
+     */
+    public int getMaterializedChunks() {
+        return this.chunks.size();
+    }
+
+    /**
+     * Retorna a quantidade de pedaços explorados guardados compactados.
+     */
+    public int getCompactedChunks() {
+        return this.compacted.size();
+    }
+
+    /**
+     * Codifica as coordenadas de uma posição num único long.
+     */
+    public static long cell(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retorna a coordenada x de uma posição codificada com {@link #cell(int, int)}.
+     */
+    public static int x(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    /**
+     * Retorna a coordenada y de uma posição codificada com {@link #cell(int, int)}.
+     */
+    public static int y(long cell) {
+        return (int) cell;
+    }
+
+    /**
+     * Retorna o pedaço que contém a posição dada, gerando-o ou restaurando-o se necessário.
+     */
+    private byte[] chunk(int x, int y) {
+        long key = key(x, y);
+        byte[] chunk = this.chunks.get(key);
+        if (chunk == null) {
+            chunk = generate(x >> CHUNK_BITS, y >> CHUNK_BITS);
+            long[] bits = this.compacted.remove(key);
+            if (bits != null) {
+                for (int index = 0; index < chunk.length; index++) {
+                    if ((bits[index >>> 6] & (1L << index)) != 0) {
+                        chunk[index] |= REVEALED;
+                    }
+                }
+            }
+            this.chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Gera o pedaço dado: calcula as minas de uma janela com uma borda de um quadrado e,
+     * a partir dela, os rótulos do pedaço.
+     */
+    private byte[] generate(int chunkX, int chunkY) {
+        int side = CHUNK_SIZE + 2;
+        boolean[] mines = new boolean[side * side];
+        int originX = (chunkX << CHUNK_BITS) - 1;
+        int originY = (chunkY << CHUNK_BITS) - 1;
+        for (int j = 0; j < side; j++) {
+            for (int i = 0; i < side; i++) {
+                mines[side * j + i] = isMine(originX + i, originY + j);
+            }
+        }
+
+        byte[] chunk = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        for (int j = 0; j < CHUNK_SIZE; j++) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                int center = side * (j + 1) + i + 1;
+                if (mines[center]) {
+                    chunk[CHUNK_SIZE * j + i] = LABEL_MINE;
+                    continue;
+                }
+                int count = 0;
+                for (int k = 0; k < NEIGHBORS_DELTA.length; k += 2) {
+                    if (mines[center + side * NEIGHBORS_DELTA[k + 1] + NEIGHBORS_DELTA[k]]) {
+                        count++;
+                    }
+                }
+                chunk[CHUNK_SIZE * j + i] = (byte) count;
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Decide se a posição dada tem mina, a partir da semente e das coordenadas. A área 3x3 ao
+     * redor do primeiro toque nunca tem minas.
+     */
+    private boolean isMine(int x, int y) {
+        if (this.initialized && Math.abs(x - this.initialX) <= 1 && Math.abs(y - this.initialY) <= 1) {
+            return false;
+        }
+        long hash = this.seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL);
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash = hash ^ (hash >>> 31);
+        return (hash >>> 11) < this.threshold;
+    }
+
+    /**
+     * Guarda um pedaço que saiu do cache: se tiver quadrados revelados, só o mapa de bits dos
+     * revelados é mantido; senão, o pedaço é descartado por completo.
+     */
+    private void compact(long key, byte[] chunk) {
+        long[] bits = null;
+        for (int index = 0; index < chunk.length; index++) {
+            if ((chunk[index] & REVEALED) != 0) {
+                if (bits == null) {
+                    bits = new long[chunk.length / 64];
+                }
+                bits[index >>> 6] |= 1L << index;
+            }
+        }
+        if (bits != null) {
+            this.compacted.put(key, bits);
+        }
+    }
+
+    private static long key(int x, int y) {
+        return cell(x >> CHUNK_BITS, y >> CHUNK_BITS);
+    }
+
+    private static int index(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+    }
+
+    private void push(long cell) {
+        if (this.pendingSize == this.pending.length) {
+            long[] grown = new long[this.pending.length * 2];
+            for (int i = 0; i < this.pendingSize; i++) {
+                grown[i] = this.pending[(this.pendingHead + i) % this.pending.length];
+            }
+            this.pending = grown;
+            this.pendingHead = 0;
+        }
+        this.pending[(this.pendingHead + this.pendingSize) % this.pending.length] = cell;
+        this.pendingSize++;
+    }
+
+    private long poll() {
+        long cell = this.pending[this.pendingHead];
+        this.pendingHead = (this.pendingHead + 1) % this.pending.length;
+        this.pendingSize--;
+        return cell;
+    }
+}
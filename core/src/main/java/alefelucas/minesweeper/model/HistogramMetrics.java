@@ -0,0 +1,219 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link MetricsListener} que acumula as medições em histogramas de escala logarítmica: o balde k
+ * conta os valores de {@code 2^(k-1)} a {@code 2^k - 1}, e o balde 0, os zeros. Gravar custa algumas
+ * operações atômicas, sem alocação, e o mesmo objeto pode ser compartilhado por jogos em threads
+ * diferentes. {@link #snapshot()} exporta uma cópia para procurar campos ruins e revelações lentas.
+ *
+ * @author Álefe Lucas
+ */
+public class HistogramMetrics implements MetricsListener {
+
+    private final Recorder initNanos = new Recorder();
+    private final Recorder reanchorMoves = new Recorder();
+    private final Recorder revealNanos = new Recorder();
+    private final Recorder revealSize = new Recorder();
+    private final Recorder queuePeak = new Recorder();
+    private final AtomicLong won = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+
+    @Override
+    public void onInit(int cells, int mines, long nanos) {
+        this.initNanos.record(nanos);
+    }
+
+    @Override
+    public void onReanchor(int moved) {
+        this.reanchorMoves.record(moved);
+    }
+
+    @Override
+    public void onReveal(int revealed, int queuePeak, long nanos) {
+        this.revealNanos.record(nanos);
+        this.revealSize.record(revealed);
+        this.queuePeak.record(queuePeak);
+    }
+
+    @Override
+    public void onGameOver(GameStatus status) {
+        (status == GameStatus.WON ? this.won : this.lost).incrementAndGet();
+    }
+
+    /**
+     * Retorna uma cópia das medições até agora. As medições feitas durante a cópia podem aparecer
+     * só em parte dela.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this.initNanos.snapshot(), this.reanchorMoves.snapshot(), this.revealNanos.snapshot(),
+                this.revealSize.snapshot(), this.queuePeak.snapshot(), this.won.get(), this.lost.get());
+    }
+
+    /**
+     * Histograma em gravação.
+     */
+    private static final class Recorder {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(Distribution.BUCKETS);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            this.buckets.incrementAndGet(Distribution.bucket(value));
+            this.sum.addAndGet(value);
+            long max;
+            while (value > (max = this.max.get()) && !this.max.compareAndSet(max, value)) {
+                // Outra thread gravou um máximo ao mesmo tempo; tenta de novo.
+            }
+        }
+
+        Distribution snapshot() {
+            long[] buckets = new long[Distribution.BUCKETS];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = this.buckets.get(i);
+            }
+            return new Distribution(buckets, this.sum.get(), this.max.get());
+        }
+    }
+
+    /**
+     * Cópia imutável de um histograma.
+     */
+    public static final class Distribution {
+
+        static final int BUCKETS = 64;
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Distribution(long[] buckets, long sum, long max) {
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Retorna o balde do valor dado; valores negativos vão para o balde 0.
+         */
+        static int bucket(long value) {
+            return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return this.count == 0 ? 0 : (double) this.sum / this.count;
+        }
+
+        /**
+         * Retorna um limite superior do percentil dado, de 0 a 100: o maior valor do balde onde ele
+         * cai, ou o máximo gravado, se for menor.
+         */
+        public long getPercentile(double percentile) {
+            long rank = (long) Math.ceil(this.count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < this.buckets.length; i++) {
+                seen += this.buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(this.max, i == 0 ? 0 : (1L << i) - 1);
+                }
+            }
+            return this.max;
+        }
+
+        /**
+         * Retorna a quantidade de valores de cada balde.
+         */
+        public long[] getBuckets() {
+            return Arrays.copyOf(this.buckets, this.buckets.length);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "count=%d mean=%.1f p50=%d p99=%d max=%d",
+                    this.count, getMean(), getPercentile(50), getPercentile(99), this.max);
+        }
+    }
+
+    /**
+     * Cópia das medições, exportável como texto com {@link #toString()}, uma medição por linha.
+     */
+    public static final class Snapshot {
+
+        private final Distribution initNanos;
+        private final Distribution reanchorMoves;
+        private final Distribution revealNanos;
+        private final Distribution revealSize;
+        private final Distribution queuePeak;
+        private final long won;
+        private final long lost;
+
+        Snapshot(Distribution initNanos, Distribution reanchorMoves, Distribution revealNanos,
+                 Distribution revealSize, Distribution queuePeak, long won, long lost) {
+            this.initNanos = initNanos;
+            this.reanchorMoves = reanchorMoves;
+            this.revealNanos = revealNanos;
+            this.revealSize = revealSize;
+            this.queuePeak = queuePeak;
+            this.won = won;
+            this.lost = lost;
+        }
+
+        public Distribution getInitNanos() {
+            return initNanos;
+        }
+
+        public Distribution getReanchorMoves() {
+            return reanchorMoves;
+        }
+
+        public Distribution getRevealNanos() {
+            return revealNanos;
+        }
+
+        public Distribution getRevealSize() {
+            return revealSize;
+        }
+
+        public Distribution getQueuePeak() {
+            return queuePeak;
+        }
+
+        public long getWon() {
+            return won;
+        }
+
+        public long getLost() {
+            return lost;
+        }
+
+        @Override
+        public String toString() {
+            return "init.nanos " + this.initNanos + "\n" +
+                    "reanchor.moves " + this.reanchorMoves + "\n" +
+                    "reveal.nanos " + this.revealNanos + "\n" +
+                    "reveal.size " + this.revealSize + "\n" +
+                    "reveal.queuePeak " + this.queuePeak + "\n" +
+                    "games.won " + this.won + "\n" +
+                    "games.lost " + this.lost + "\n";
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+
+import static alefelucas.minesweeper.model.Minesweeper.DEAD;
+import static alefelucas.minesweeper.model.Minesweeper.LABEL_MASK;
+import static alefelucas.minesweeper.model.Minesweeper.LABEL_MINE;
+import static alefelucas.minesweeper.model.Minesweeper.LABEL_NEUTRALIZER;
+
+/**
+ * Cálculo em bloco dos rótulos de todo o campo a partir de mapas de bits das minas e dos
+ * neutralizadores, um {@code long} para cada 64 quadrados de uma linha.
+ * <p>
+ * Os oito vizinhos de 64 quadrados são obtidos de uma vez deslocando as palavras da linha de cima,
+ * da própria linha e da de baixo, e somados num contador de 4 bits fatiado: o bit k da contagem de
+ * cada quadrado fica na palavra {@code count[k]}, e cada vizinho é somado com uma cadeia de
+ * meio-somadores. A neutralização é uma máscara: as minas com algum vizinho neutralizador, obtido
+ * com os mesmos deslocamentos, ficam mortas. Os rótulos são montados de 8 em 8 quadrados por uma
+ * tabela; só a gravação final no vetor de quadrados é feita byte a byte.
+ *
+ * @author Álefe Lucas
+ */
+final class LabelKernel {
+
+    /**
+     * Para cada byte, os seus 8 bits espalhados no bit baixo de cada byte de um {@code long}: com ele
+     * os rótulos de 8 quadrados são montados de uma vez a partir das palavras do contador.
+     */
+    private static final long[] SPREAD = new long[256];
+
+    static {
+        for (int bits = 0; bits < 256; bits++) {
+            long spread = 0;
+            for (int b = 0; b < 8; b++) {
+                spread |= (long) (bits >>> b & 1) << (b << 3);
+            }
+            SPREAD[bits] = spread;
+        }
+    }
+
+    private LabelKernel() {
+    }
+
+    /**
+     * Retorna a quantidade de palavras de uma linha do mapa de bits.
+     */
+    static int words(int width) {
+        return (width + 63) >>> 6;
+    }
+
+    /**
+     * Cria um mapa de bits vazio para o campo dado.
+     */
+    static long[] newBoard(int width, int height) {
+        return new long[words(width) * height];
+    }
+
+    /**
+     * Liga o bit da posição dada ({@code y * largura + x}).
+     */
+    static void set(long[] board, int width, int position) {
+        int x = position % width;
+        int y = position / width;
+        board[y * words(width) + (x >>> 6)] |= 1L << x;
+    }
+
+    /**
+     * Grava em {@code cells} o rótulo de todos os quadrados: {@link Minesweeper#LABEL_MINE} nas minas,
+     * com {@link Minesweeper#DEAD} se houver um neutralizador vizinho, {@link Minesweeper#LABEL_NEUTRALIZER}
+     * nos neutralizadores e, nos demais, a quantidade de minas vizinhas. Os bits de estado dos quadrados
+     * são apagados.
+     */
+    static void label(long[] mines, long[] neutralizers, int width, int height, byte[] cells) {
+        int words = words(width);
+        for (int y = 0; y < height; y++) {
+            int row = y * words;
+            int above = y > 0 ? row - words : -1;
+            int below = y < height - 1 ? row + words : -1;
+            for (int w = 0; w < words; w++) {
+                long count0 = 0;
+                long count1 = 0;
+                long count2 = 0;
+                long count3 = 0;
+                long near = 0;
+
+                for (int neighborRow = -1; neighborRow <= 1; neighborRow++) {
+                    int base = neighborRow < 0 ? above : neighborRow > 0 ? below : row;
+                    if (base < 0) {
+                        continue;
+                    }
+                    long center = mines[base + w];
+                    long west = center << 1 | (w > 0 ? mines[base + w - 1] >>> 63 : 0);
+                    long east = center >>> 1 | (w < words - 1 ? mines[base + w + 1] << 63 : 0);
+
+                    // Soma west, east e, fora da própria linha, center ao contador fatiado.
+                    long carry0 = count0 & west;
+                    count0 ^= west;
+                    long carry1 = count1 & carry0;
+                    count1 ^= carry0;
+                    long carry2 = count2 & carry1;
+                    count2 ^= carry1;
+                    count3 |= carry2;
+
+                    carry0 = count0 & east;
+                    count0 ^= east;
+                    carry1 = count1 & carry0;
+                    count1 ^= carry0;
+                    carry2 = count2 & carry1;
+                    count2 ^= carry1;
+                    count3 |= carry2;
+
+                    if (neighborRow != 0) {
+                        carry0 = count0 & center;
+                        count0 ^= center;
+                        carry1 = count1 & carry0;
+                        count1 ^= carry0;
+                        carry2 = count2 & carry1;
+                        count2 ^= carry1;
+                        count3 |= carry2;
+                    }
+
+                    long neutralizer = neutralizers[base + w];
+                    near |= neutralizer << 1 | (w > 0 ? neutralizers[base + w - 1] >>> 63 : 0);
+                    near |= neutralizer >>> 1 | (w < words - 1 ? neutralizers[base + w + 1] << 63 : 0);
+                    if (neighborRow != 0) {
+                        near |= neutralizer;
+                    }
+                }
+
+                int start = y * width + (w << 6);
+                int end = Math.min(64, width - (w << 6));
+                for (int b = 0; b < end; b += 8) {
+                    long labels = SPREAD[(int) (count0 >>> b) & 0xFF] | SPREAD[(int) (count1 >>> b) & 0xFF] << 1 |
+                            SPREAD[(int) (count2 >>> b) & 0xFF] << 2 | SPREAD[(int) (count3 >>> b) & 0xFF] << 3;
+                    for (int i = b; i < Math.min(b + 8, end); i++) {
+                        cells[start + i] = (byte) labels;
+                        labels >>>= 8;
+                    }
+                }
+
+                long mine = mines[row + w];
+                long dead = mine & near;
+                for (long bits = mine; bits != 0; bits &= bits - 1) {
+                    int b = Long.numberOfTrailingZeros(bits);
+                    cells[start + b] = (byte) ((dead >>> b & 1) != 0 ? LABEL_MINE | DEAD : LABEL_MINE);
+                }
+                for (long bits = neutralizers[row + w]; bits != 0; bits &= bits - 1) {
+                    cells[start + Long.numberOfTrailingZeros(bits)] = LABEL_NEUTRALIZER;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mesmo resultado de {@link #label(long[], long[], int, int, byte[])}, quadrado a quadrado: cada
+     * mina incrementa o rótulo dos vizinhos e cada neutralizador mata as minas vizinhas. É o cálculo
+     * usado antes do mapa de bits, mantido como referência para testes e comparação.
+     */
+    static void labelScalar(long[] mines, long[] neutralizers, int width, int height, byte[] cells) {
+        int words = words(width);
+        Arrays.fill(cells, 0, width * height, (byte) 0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if ((mines[y * words + (x >>> 6)] & 1L << x) == 0) {
+                    continue;
+                }
+                cells[y * width + x] = LABEL_MINE;
+                for (int neighborY = Math.max(0, y - 1); neighborY <= Math.min(height - 1, y + 1); neighborY++) {
+                    for (int neighborX = Math.max(0, x - 1); neighborX <= Math.min(width - 1, x + 1); neighborX++) {
+                        int neighbor = neighborY * width + neighborX;
+                        if ((cells[neighbor] & LABEL_MASK) != LABEL_MINE) {
+                            cells[neighbor]++;
+                        }
+                    }
+                }
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if ((neutralizers[y * words + (x >>> 6)] & 1L << x) == 0) {
+                    continue;
+                }
+                cells[y * width + x] = LABEL_NEUTRALIZER;
+                for (int neighborY = Math.max(0, y - 1); neighborY <= Math.min(height - 1, y + 1); neighborY++) {
+                    for (int neighborX = Math.max(0, x - 1); neighborX <= Math.min(width - 1, x + 1); neighborX++) {
+                        int neighbor = neighborY * width + neighborX;
+                        if ((cells[neighbor] & LABEL_MASK) == LABEL_MINE) {
+                            cells[neighbor] |= DEAD;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
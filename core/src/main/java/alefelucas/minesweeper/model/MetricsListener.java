@@ -0,0 +1,68 @@
+package alefelucas.minesweeper.model;
+
+/**
+ * Recebe medições dos caminhos críticos do {@link Minesweeper}: geração do campo, movimentação da
+ * área livre no primeiro toque, revelações e fim de jogo. Os métodos são chamados na thread que
+ * joga, logo depois da operação medida, e devem ser baratos.
+ * <p>
+ * O padrão é {@link #NONE}: com ele o jogo nem lê o relógio, então o custo é só uma comparação de
+ * referência por operação, que o JIT resolve com a previsão de desvio.
+ *
+ * @author Álefe Lucas
+ * @see HistogramMetrics
+ */
+public interface MetricsListener {
+
+    /**
+     * Listener que ignora todas as medições.
+     */
+    MetricsListener NONE = new MetricsListener() {
+        @Override
+        public void onInit(int cells, int mines, long nanos) {
+        }
+
+        @Override
+        public void onReanchor(int moved) {
+        }
+
+        @Override
+        public void onReveal(int revealed, int queuePeak, long nanos) {
+        }
+
+        @Override
+        public void onGameOver(GameStatus status) {
+        }
+    };
+
+    /**
+     * O campo foi gerado: minas e neutralizadores distribuídos e rótulos calculados. O sorteio não
+     * tem tentativas repetidas, então a duração depende só do tamanho do campo.
+     *
+     * @param cells quantidade de quadrados
+     * @param mines quantidade de minas colocadas
+     * @param nanos duração da geração
+     */
+    void onInit(int cells, int mines, long nanos);
+
+    /**
+     * A área livre de um campo gerado antecipadamente foi movida para o primeiro toque.
+     *
+     * @param moved quantidade de minas e neutralizadores trocados de lugar, de 0 a 9
+     */
+    void onReanchor(int moved);
+
+    /**
+     * Uma revelação terminou.
+     *
+     * @param revealed  quantidade de quadrados revelados
+     * @param queuePeak maior quantidade de quadrados à espera na fila da busca em largura
+     * @param nanos     duração da busca
+     */
+    void onReveal(int revealed, int queuePeak, long nanos);
+
+    /**
+     * O jogo acabou de ser vencido ou perdido. Informado uma única vez por jogo, mesmo que a jogada
+     * final seja desfeita e refeita.
+     */
+    void onGameOver(GameStatus status);
+}
@@ -0,0 +1,1179 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static alefelucas.minesweeper.model.GameStatus.LOST;
+import static alefelucas.minesweeper.model.GameStatus.PLAYING;
+import static alefelucas.minesweeper.model.GameStatus.WON;
+
+/**
+ * Estrutura principal do jogo campo minado. Toda lógica básica do
+ * jogo se encontra encapsulada nesta classe.
+ * <p>
+ * O campo é armazenado num único vetor de bytes, um byte por quadrado, indexado por
+ * {@code y * largura + x}. Os quatro bits baixos de cada byte guardam o rótulo do quadrado
+ * ({@link #LABEL_MASK}), calculado uma única vez durante a distribuição das minas, e os bits
+ * {@link #DEAD}, {@link #REVEALED} e {@link #FLAGGED} guardam o estado da mina e do quadrado. Medido com campos de 1000x1000 numa JVM de
+ * 64 bits, o custo é de 1,0 byte por quadrado, contra cerca de 28 bytes por quadrado da
+ * matriz de objetos usada anteriormente (referência, cabeçalho do objeto e campos).
+ * <p>
+ * Quando o campo é gerado, as regiões de quadrados vazios e as suas bordas são indexadas por
+ * {@link RegionIndex}, de forma que revelar um quadrado vazio copia a região pronta em vez de percorrer
+ * os vizinhos de cada quadrado. O índice custa mais um inteiro por quadrado e um por membro de região.
+ *
+ * @author Álefe Lucas
+ */
+public class Minesweeper {
+
+    /**
+     * Máscara do rótulo do quadrado: de 0 a 8 é a quantidade de minas vizinhas,
+     * {@link #LABEL_MINE} é uma mina e {@link #LABEL_NEUTRALIZER} é um neutralizador.
+     */
+    static final int LABEL_MASK = 0x0F;
+
+    /**
+     * Rótulo do quadrado que possui uma mina, ativa ou neutralizada.
+     */
+    static final int LABEL_MINE = 9;
+
+    /**
+     * Rótulo do quadrado que possui um neutralizador.
+     */
+    static final int LABEL_NEUTRALIZER = 10;
+
+    /**
+     * Bit da mina neutralizada por um neutralizador vizinho.
+     */
+    static final byte DEAD = 0x10;
+
+    /**
+     * Bit do quadrado revelado.
+     */
+    static final byte REVEALED = 0x20;
+
+    /**
+     * Bit do quadrado escondido marcado pelo jogador como mina. Quadrados marcados não são revelados,
+     * nem pelo toque nem pela busca em largura.
+     */
+    static final byte FLAGGED = 0x40;
+
+    /**
+     * Caractere exibido para cada rótulo.
+     */
+    static final char[] LABELS = {' ', '1', '2', '3', '4', '5', '6', '7', '8', '*', 'N'};
+
+    /**
+     * Máscara do rótulo nos bytes lidos por {@link #readRegion(int, int, int, int, byte[], int)}.
+     */
+    public static final int REGION_LABEL_MASK = LABEL_MASK;
+
+    /**
+     * Bit do quadrado revelado nos bytes lidos por {@link #readRegion(int, int, int, int, byte[], int)}.
+     */
+    public static final int REGION_REVEALED = REVEALED;
+
+    /**
+     * Bit do quadrado marcado nos bytes lidos por {@link #readRegion(int, int, int, int, byte[], int)}.
+     */
+    public static final int REGION_FLAGGED = FLAGGED;
+
+    private final int width;
+    private final int height;
+
+    private GameStatus status;
+
+    private final byte[] cells;
+    private boolean initialized;
+
+    /**
+     * Posição da área livre de minas de um campo gerado antecipadamente por {@link #prepare(int, int)},
+     * ainda não movida para o primeiro toque do jogador. Vale -1 quando não há área pendente.
+     */
+    private int anchor = -1;
+
+    private int mineQuantity;
+
+    /**
+     * Quantidade de minas pedida na construção; {@link #mineQuantity} é limitada aos quadrados elegíveis
+     * de cada geração.
+     */
+    private final int requestedMineQuantity;
+    private static final int NEUTRALIZERS = 2;
+
+    private final long seed;
+
+    private int revealedCellsQuantity;
+    private int flaggedCellsQuantity;
+
+    /**
+     * Se a jogada em andamento revelou uma mina ativa; decidido por {@link #revealCell(int)}.
+     */
+    private boolean detonated;
+
+    /**
+     * Se o fim do jogo já foi informado ao {@link #metrics}: desfazer a jogada final e refazê-la,
+     * ou terminar o jogo de outra forma, não conta outro jogo.
+     */
+    private boolean gameOverReported;
+
+    /**
+     * Vizinhança dos quadrados. Os laços sobre vizinhos usam direto a tabela de {@link Topology}.
+     */
+    private final Topology topology;
+
+    /**
+     * Fila de trabalho reutilizada pelas revelações, alocada na primeira revelação.
+     */
+    private int[] queue;
+
+    /**
+     * Vizinhos de um número tocado por {@link #chord(int, int)}, reutilizados entre os toques e
+     * alocados no primeiro.
+     */
+    private int[] chordNeighbors;
+
+    /**
+     * Regiões vazias do campo, calculadas quando ele é gerado, ou null antes disso.
+     */
+    private RegionIndex regions;
+
+    /**
+     * Diário onde as jogadas são registradas, ou null.
+     */
+    private MoveJournal journal;
+
+    /**
+     * Histórico de desfazer e refazer, ou null se desligado.
+     */
+    private UndoHistory history;
+
+    /**
+     * Destino das medições do jogo; {@link MetricsListener#NONE} desliga a medição.
+     */
+    private MetricsListener metrics = MetricsListener.NONE;
+
+    /**
+     * Maior quantidade de posições à espera na fila durante a última busca de {@link #spread(int, boolean)}.
+     */
+    private int queuePeak;
+
+
+    /**
+     * Constrói um objeto {@link Minesweeper} dado a altura e largura do jogo (quantidade de quadrados), e a quantidade de minas.
+     *
+     * @param height altura
+     * @param width  largura
+     * @param mineQuantity quantidade de minas
+     */
+    public Minesweeper(int height, int width, int mineQuantity) {
+        this(height, width, mineQuantity, new Random().nextLong());
+    }
+
+    /**
+     * Constrói um objeto {@link Minesweeper} com a semente dada para o sorteio das minas e neutralizadores,
+     * permitindo reproduzir o mesmo campo.
+     *
+     * @param height altura
+     * @param width  largura
+     * @param mineQuantity quantidade de minas
+     * @param seed semente do sorteio
+     */
+    public Minesweeper(int height, int width, int mineQuantity, long seed) {
+        this(Topology.square(width, height), mineQuantity, seed);
+    }
+
+    /**
+     * Constrói um objeto {@link Minesweeper} com a vizinhança dada, que também define as dimensões do campo.
+     * Em todas as vizinhanças, o primeiro toque é seguro junto com os seus vizinhos.
+     *
+     * @param topology     vizinhança dos quadrados
+     * @param mineQuantity quantidade de minas
+     * @param seed         semente do sorteio
+     */
+    public Minesweeper(Topology topology, int mineQuantity, long seed) {
+        this.topology = topology;
+        this.width = topology.getWidth();
+        this.height = topology.getHeight();
+        this.mineQuantity = mineQuantity;
+        this.requestedMineQuantity = mineQuantity;
+        this.seed = seed;
+
+        this.cells = new byte[this.height * this.width];
+        this.revealedCellsQuantity = 0;
+        this.status = PLAYING;
+    }
+
+
+    /**
+     * Revela um quadrado do jogo, na posição dada. Se for um quadrado que não possui minas na vizinhança,
+     * é revelado os quadrados adjascentes, numa busca em largura iterativa (sem recursão).
+     * O status do jogo é decidido uma única vez, ao final da revelação. Revelar um quadrado já
+     * revelado não muda nada.
+     *
+     * @return Vetor de inteiros contendo as posições reveladas.
+     */
+    public int[] reveal(int x, int y) {
+        int revealed = revealInPlace(x, y);
+        return Arrays.copyOf(workQueue(), revealed);
+    }
+
+    /**
+     * Revela a posição dada como {@link #reveal(int, int)}, registrando a jogada no diário, se houver,
+     * mas sem copiar as posições reveladas.
+     *
+     * @return quantidade de posições reveladas, que ocupam o início de {@link #queue}.
+     */
+    int revealInPlace(int x, int y) {
+        if (this.journal != null) {
+            this.journal.append(MoveJournal.OP_REVEAL, this.width * y + x);
+        }
+        if (this.history != null) {
+            this.history.clearRedo();
+        }
+        return play(x, y);
+    }
+
+    /**
+     * Revela de uma vez os quadrados das posições dadas ({@code y * largura + x}) e, como em
+     * {@link #reveal(int, int)}, os vizinhos dos que forem vazios. Todas as posições são abertas numa
+     * única busca em largura, com a marca de revelado compartilhada, e o status do jogo é decidido uma
+     * única vez, ao final; posições repetidas, já reveladas ou marcadas são ignoradas. A jogada entra
+     * no diário e no histórico de desfazer como uma só. Se o campo ainda não foi gerado, a primeira
+     * posição é o primeiro toque.
+     *
+     * @return Vetor de inteiros contendo as posições reveladas por todo o lote.
+     * @throws ArrayIndexOutOfBoundsException se alguma posição estiver fora do campo.
+     */
+    public int[] revealAll(int[] positions) {
+        int revealed = revealAllInPlace(positions, positions.length);
+        return Arrays.copyOf(workQueue(), revealed);
+    }
+
+    /**
+     * Revela as posições {@code positions[0..count)} como {@link #revealAll(int[])}, registrando a
+     * jogada no diário, se houver, mas sem copiar as posições reveladas.
+     *
+     * @return quantidade de posições reveladas, que ocupam o início de {@link #queue}.
+     */
+    int revealAllInPlace(int[] positions, int count) {
+        for (int i = 0; i < count; i++) {
+            if (positions[i] < 0 || positions[i] >= this.cells.length) {
+                throw new ArrayIndexOutOfBoundsException(positions[i]);
+            }
+        }
+        if (this.journal != null) {
+            this.journal.appendBatch(positions, count);
+        }
+        if (this.history != null) {
+            this.history.clearRedo();
+        }
+        return play(positions, count);
+    }
+
+    /**
+     * Revela todos os vizinhos escondidos e não marcados do número revelado na posição dada, se a
+     * quantidade de vizinhos marcados for igual ao número. Os vizinhos são abertos como um lote de
+     * {@link #revealAll(int[])}; se alguma marca estiver errada, uma mina é revelada e o jogo é perdido.
+     *
+     * @return Vetor de inteiros contendo as posições reveladas; vazio se a posição não for um número
+     * revelado com tantas marcas quanto minas vizinhas.
+     */
+    public int[] chord(int x, int y) {
+        int revealed = chordInPlace(x, y);
+        return Arrays.copyOf(workQueue(), revealed);
+    }
+
+    /**
+     * Faz a jogada de {@link #chord(int, int)}, registrando-a no diário, se houver, mas sem copiar as
+     * posições reveladas.
+     *
+     * @return quantidade de posições reveladas, que ocupam o início de {@link #queue}.
+     */
+    int chordInPlace(int x, int y) {
+        int position = this.width * y + x;
+        byte cell = this.cells[position];
+        int label = cell & LABEL_MASK;
+        if (!this.initialized || (cell & REVEALED) == 0 || label == 0 || label >= LABEL_MINE) {
+            return 0;
+        }
+        int[] neighbors = this.chordNeighbors;
+        if (neighbors == null) {
+            neighbors = this.chordNeighbors = new int[this.topology.getMaxDegree()];
+        }
+        int count = this.topology.neighbors(position, neighbors);
+        int flagged = 0;
+        int hidden = 0;
+        for (int i = 0; i < count; i++) {
+            byte neighbor = this.cells[neighbors[i]];
+            if ((neighbor & FLAGGED) != 0) {
+                flagged++;
+            } else if ((neighbor & REVEALED) == 0) {
+                neighbors[hidden++] = neighbors[i];
+            }
+        }
+        if (flagged != label || hidden == 0) {
+            return 0;
+        }
+        if (this.journal != null) {
+            this.journal.append(MoveJournal.OP_CHORD, position);
+        }
+        if (this.history != null) {
+            this.history.clearRedo();
+        }
+        return play(neighbors, hidden);
+    }
+
+    /**
+     * Marca ou desmarca como mina o quadrado escondido da posição dada. Quadrados revelados não
+     * podem ser marcados; antes do primeiro toque, o campo ainda pode mudar e nada é marcado. As
+     * marcas não entram no histórico de desfazer.
+     *
+     * @return se a marca do quadrado mudou.
+     */
+    public boolean setFlagged(int x, int y, boolean flagged) {
+        int position = this.width * y + x;
+        byte cell = this.cells[position];
+        if (!this.initialized || this.anchor >= 0 || (cell & REVEALED) != 0 || ((cell & FLAGGED) != 0) == flagged) {
+            return false;
+        }
+        if (this.journal != null) {
+            this.journal.append(MoveJournal.OP_FLAG, position << 1 | (flagged ? 1 : 0));
+        }
+        this.cells[position] = (byte) (flagged ? cell | FLAGGED : cell & ~FLAGGED);
+        this.flaggedCellsQuantity += flagged ? 1 : -1;
+        if (flagged && (cell & LABEL_MASK) == 0) {
+            this.regions.invalidate(position);
+        }
+        return true;
+    }
+
+    /**
+     * Inverte a marca do quadrado escondido da posição dada, como {@link #setFlagged(int, int, boolean)}.
+     *
+     * @return se a marca do quadrado mudou.
+     */
+    public boolean toggleFlag(int x, int y) {
+        return setFlagged(x, y, !isFlagged(x, y));
+    }
+
+    /**
+     * Retorna se o quadrado da posição dada está marcado como mina.
+     */
+    public boolean isFlagged(int x, int y) {
+        return (this.cells[this.width * y + x] & FLAGGED) != 0;
+    }
+
+    /**
+     * Retorna a quantidade de quadrados marcados como mina.
+     */
+    public int getFlaggedCellsQuantity() {
+        return flaggedCellsQuantity;
+    }
+
+    /**
+     * Faz a jogada de revelar a posição dada e a empilha no histórico de desfazer, se houver.
+     *
+     * @return quantidade de posições reveladas, que ocupam o início de {@link #queue}.
+     */
+    private int play(int x, int y) {
+        int position = this.width * y + x;
+        if (this.initialized && this.anchor < 0 && (this.cells[position] & (REVEALED | FLAGGED)) != 0) {
+            return 0;
+        }
+        int revealedCellsBefore = this.revealedCellsQuantity;
+        GameStatus statusBefore = this.status;
+        start(position);
+
+        boolean timed = this.metrics != MetricsListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+        int[] queue = workQueue();
+        queue[0] = position;
+        revealCell(position);
+        int revealed = spread(1, timed);
+        if (timed) {
+            this.metrics.onReveal(revealed, this.queuePeak, System.nanoTime() - start);
+        }
+        finish(revealed, 1, revealedCellsBefore, statusBefore);
+        return revealed;
+    }
+
+    /**
+     * Faz a jogada de revelar as posições {@code seeds[0..count)} numa única busca e a empilha no
+     * histórico de desfazer, se houver. {@code seeds} não pode ser {@link #queue}.
+     *
+     * @return quantidade de posições reveladas, que ocupam o início de {@link #queue}.
+     */
+    private int play(int[] seeds, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        int revealedCellsBefore = this.revealedCellsQuantity;
+        GameStatus statusBefore = this.status;
+        start(seeds[0]);
+
+        boolean timed = this.metrics != MetricsListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+        int[] queue = workQueue();
+        int seeded = 0;
+        for (int i = 0; i < count; i++) {
+            int position = seeds[i];
+            if ((this.cells[position] & (REVEALED | FLAGGED)) == 0) {
+                queue[seeded++] = position;
+                revealCell(position);
+            }
+        }
+        if (seeded == 0) {
+            return 0;
+        }
+        int revealed = spread(seeded, timed);
+        if (timed) {
+            this.metrics.onReveal(revealed, this.queuePeak, System.nanoTime() - start);
+        }
+        finish(revealed, seeded, revealedCellsBefore, statusBefore);
+        return revealed;
+    }
+
+    /**
+     * Gera o campo, se ainda não foi gerado, ou move a área livre pendente para a posição dada,
+     * que é o primeiro toque do jogador.
+     */
+    private void start(int position) {
+        if (!this.initialized) {
+            init(position % this.width, position / this.width);
+        } else if (this.anchor >= 0) {
+            int moved = reanchor(position % this.width, position / this.width);
+            this.metrics.onReanchor(moved);
+        }
+    }
+
+    /**
+     * Decide o status do jogo depois de uma jogada que revelou {@code revealed} posições, das quais
+     * as {@code seeds} primeiras foram tocadas, e a empilha no histórico de desfazer, se houver.
+     */
+    private void finish(int revealed, int seeds, int revealedCellsBefore, GameStatus statusBefore) {
+        if (this.detonated) {
+            this.detonated = false;
+            this.status = LOST;
+        } else if (this.revealedCellsQuantity >= this.width * this.height - (mineQuantity)) {
+            this.status = WON;
+        } else {
+            this.status = PLAYING;
+        }
+        if (this.status != PLAYING && statusBefore == PLAYING && !this.gameOverReported) {
+            this.gameOverReported = true;
+            this.metrics.onGameOver(this.status);
+        }
+        if (this.history != null) {
+            this.history.push(this.queue, revealed, seeds, revealedCellsBefore, statusBefore.ordinal());
+        }
+    }
+
+    /**
+     * Passa a guardar o histórico das jogadas para {@link #undo()} e {@link #redo()}, limitado a
+     * {@code capacity} inteiros: cada jogada ocupa a quantidade de posições reveladas mais quatro.
+     * O histórico começa pequeno e cresce com as jogadas até o limite. Um limite zero desliga o
+     * histórico.
+     */
+    public void enableUndo(int capacity) {
+        if (this.journal != null) {
+            this.journal.append(MoveJournal.OP_UNDO_CAPACITY, Math.max(0, capacity));
+        }
+        this.history = capacity > 0 ? new UndoHistory(capacity) : null;
+    }
+
+    int getUndoCapacity() {
+        return this.history != null ? this.history.getCapacity() : 0;
+    }
+
+    /**
+     * Retorna se há alguma jogada no histórico a desfazer.
+     */
+    public boolean canUndo() {
+        return this.history != null && this.history.canUndo();
+    }
+
+    /**
+     * Retorna se há alguma jogada desfeita a refazer.
+     */
+    public boolean canRedo() {
+        return this.history != null && this.history.canRedo();
+    }
+
+    /**
+     * Desfaz a última jogada: esconde de novo as posições que ela revelou e restaura o status e a
+     * contagem de revelados. O custo é linear na quantidade de posições da jogada. As minas movidas
+     * no primeiro toque de um campo gerado por {@link #prepare(int, int)} continuam onde estão.
+     *
+     * @return as posições escondidas de novo.
+     * @throws IllegalStateException se não houver jogada a desfazer.
+     */
+    public int[] undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        if (this.journal != null) {
+            this.journal.append(MoveJournal.OP_UNDO, 0);
+        }
+        int[] queue = workQueue();
+        int count = this.history.pop(queue);
+        for (int i = 0; i < count; i++) {
+            this.cells[queue[i]] &= ~REVEALED;
+        }
+        this.revealedCellsQuantity = this.history.getUndoneRevealedCells();
+        this.status = GameStatus.values()[this.history.getUndoneStatus()];
+        this.history.pushRedo(queue, this.history.getUndoneSeeds());
+        return Arrays.copyOf(queue, count);
+    }
+
+    /**
+     * Refaz a última jogada desfeita.
+     *
+     * @return as posições reveladas de novo.
+     * @throws IllegalStateException se não houver jogada a refazer.
+     */
+    public int[] redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        if (this.journal != null) {
+            this.journal.append(MoveJournal.OP_REDO, 0);
+        }
+        int[] seeds = this.history.popRedo();
+        int revealed = play(seeds, seeds.length);
+        return Arrays.copyOf(workQueue(), revealed);
+    }
+
+    /**
+     * Revela, enquanto houver quadrados vazios, os vizinhos ainda não revelados nem marcados das
+     * posições {@code queue[0..seeded)}, já reveladas. Usa {@link #queue} como fila de trabalho: cada
+     * posição é marcada como revelada ao entrar na fila, de forma que a própria marca de revelado serve
+     * de conjunto de visitados e nenhuma posição é enfileirada duas vezes, mesmo entre as áreas de
+     * posições diferentes de um lote. Um quadrado vazio de uma região atualizada de {@link #regions}
+     * não percorre os vizinhos: a região inteira é enfileirada de uma vez, e os seus outros quadrados
+     * vazios são pulados ao sair da fila. Com {@code trackPeak}, guarda em {@link #queuePeak} o maior
+     * tamanho da fila; desligada, a medição é um desvio invariante que o JIT tira do laço.
+     *
+     * @return quantidade de posições reveladas, que ocupam o início de {@link #queue}.
+     */
+    private int spread(int seeded, boolean trackPeak) {
+        int[] queue = workQueue();
+        byte[] classes = this.topology.classes;
+        int[] starts = this.topology.starts;
+        int[] deltas = this.topology.deltas;
+        RegionIndex regions = this.regions;
+        int[] regionOf = regions.regionOf;
+        boolean[] stale = regions.stale;
+        regions.beginSearch();
+        int head = 0;
+        int tail = seeded;
+        int peak = seeded;
+
+        while (head < tail) {
+            int position = queue[head++];
+            if ((this.cells[position] & LABEL_MASK) != 0) {
+                continue;
+            }
+            int region = regionOf[position];
+            if (region >= 0 && !stale[region]) {
+                if (regions.claim(region)) {
+                    tail = revealRegion(region, tail);
+                    if (trackPeak && tail - head > peak) {
+                        peak = tail - head;
+                    }
+                }
+                continue;
+            }
+            int cellClass = classes[position];
+            for (int i = starts[cellClass], end = starts[cellClass + 1]; i < end; i++) {
+                int neighbor = position + deltas[i];
+                if ((this.cells[neighbor] & (REVEALED | FLAGGED)) == 0) {
+                    queue[tail++] = neighbor;
+                    revealCell(neighbor);
+                }
+            }
+            if (trackPeak && tail - head > peak) {
+                peak = tail - head;
+            }
+        }
+        this.queuePeak = peak;
+        return tail;
+    }
+
+    /**
+     * Enfileira em {@link #queue}, a partir de {@code tail}, os membros ainda não revelados nem
+     * marcados da região dada, marcando-os como revelados.
+     *
+     * @return o novo fim da fila.
+     */
+    private int revealRegion(int region, int tail) {
+        int[] queue = this.queue;
+        int[] members = this.regions.members;
+        for (int i = this.regions.starts[region], end = this.regions.starts[region + 1]; i < end; i++) {
+            int member = members[i];
+            if ((this.cells[member] & (REVEALED | FLAGGED)) == 0) {
+                queue[tail++] = member;
+                revealCell(member);
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Retorna a fila de trabalho, alocando-a no primeiro uso. Também serve de vetor de
+     * candidatos durante a distribuição das minas.
+     */
+    private int[] workQueue() {
+        if (this.queue == null) {
+            this.queue = new int[this.cells.length];
+        }
+        return this.queue;
+    }
+
+    /**
+     * Marca a posição dada como revelada, contabilizando-a caso não seja uma mina e guardando em
+     * {@link #detonated} se for uma mina ativa.
+     */
+    private void revealCell(int position) {
+        byte cell = this.cells[position];
+        this.cells[position] = (byte) (cell | REVEALED);
+        if ((cell & LABEL_MASK) != LABEL_MINE) {
+            this.revealedCellsQuantity++;
+        } else if ((cell & DEAD) == 0) {
+            this.detonated = true;
+        }
+    }
+
+    /**
+     * Retorna se a posição dada está revelada.
+     */
+    public boolean isRevealed(int x, int y) {
+        return (this.cells[this.width * y + x] & REVEALED) != 0;
+    }
+
+    /**
+     * Obtém o rótulo exibido na posição dada, seja vazio (espaço), número, asterísco ou a letra 'N'.
+     * O rótulo já está calculado na tabela de quadrados, então a consulta é uma única leitura.
+     */
+    public char getCellLabel(int x, int y) {
+        return LABELS[this.cells[this.width * y + x] & LABEL_MASK];
+    }
+
+    /**
+     * Copia os quadrados do retângulo dado para o vetor dado, linha por linha, a partir de {@code offset}:
+     * o quadrado {@code (x + i, y + j)} vai para {@code out[offset + j * regionWidth + i]}. Cada byte traz o
+     * rótulo em {@link #REGION_LABEL_MASK}, que pode ser convertido com {@link #toLabel(byte)}, e o bit
+     * {@link #REGION_REVEALED}; os demais bits são reservados. A leitura é uma cópia por linha, sem
+     * chamadas por quadrado nem alocação.
+     *
+     * @throws IndexOutOfBoundsException se o retângulo sair do campo ou não couber no vetor.
+     */
+    public void readRegion(int x, int y, int regionWidth, int regionHeight, byte[] out, int offset) {
+        if (x < 0 || y < 0 || regionWidth < 0 || regionHeight < 0 || x + regionWidth > this.width || y + regionHeight > this.height) {
+            throw new IndexOutOfBoundsException("Region outside the board");
+        }
+        for (int j = 0; j < regionHeight; j++) {
+            System.arraycopy(this.cells, this.width * (y + j) + x, out, offset + j * regionWidth, regionWidth);
+        }
+    }
+
+    /**
+     * Converte um byte lido por {@link #readRegion(int, int, int, int, byte[], int)} no rótulo
+     * exibido, como em {@link #getCellLabel(int, int)}.
+     */
+    public static char toLabel(byte cell) {
+        return LABELS[cell & LABEL_MASK];
+    }
+
+    /**
+     * Distribui as minas e neutralizadores pelo espaço do jogo, assegurando que a posição dada será vazia,
+     * e calcula as regiões vazias do campo. O sorteio usa a semente do jogo, então a mesma semente e a
+     * mesma posição inicial geram sempre o mesmo campo.
+     */
+    void init(int initialX, int initialY) {
+        boolean timed = this.metrics != MetricsListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+        generate(initialX, initialY);
+        this.regions = RegionIndex.build(this.cells, this.topology);
+        this.initialized = true;
+        if (timed) {
+            this.metrics.onInit(this.cells.length, this.mineQuantity, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Distribui as minas e neutralizadores e calcula os rótulos, sem as regiões vazias, para quem só
+     * lê o campo gerado.
+     */
+    void generate(int initialX, int initialY) {
+        Random random = new Random(this.seed);
+        int[] candidates = workQueue();
+        int initial = this.width * initialY + initialX;
+        int eligible = putMines(random, candidates, initial);
+        int end = putNeutralizers(random, candidates, eligible, initial);
+        label(candidates, this.mineQuantity, end);
+    }
+
+    /**
+     * Gera o campo antecipadamente, com a área livre de minas ao redor da posição dada. No primeiro
+     * toque, essa área é movida para a posição tocada em tempo constante, de forma que o primeiro
+     * toque continua sempre seguro. Pode ser chamado fora da thread principal, antes do jogo começar.
+     */
+    public void prepare(int anchorX, int anchorY) {
+        init(anchorX, anchorY);
+        this.anchor = this.width * anchorY + anchorX;
+    }
+
+    /**
+     * Move a área livre de minas gerada por {@link #prepare(int, int)} para a posição dada: as minas
+     * na posição e nos seus vizinhos, e um eventual neutralizador nela, são trocados de lugar com
+     * quadrados livres da área gerada. No máximo nove objetos são movidos e apenas os rótulos e
+     * neutralizações das vizinhanças afetadas são atualizados, e as regiões vazias próximas dadas como
+     * desatualizadas, então o custo não depende do tamanho do campo. Num campo tão cheio que não há
+     * quadrados livres suficientes fora da área da posição dada, o campo é gerado de novo a partir dela,
+     * com a mesma semente, como se não tivesse sido gerado antecipadamente.
+     *
+     * @return quantidade de minas e neutralizadores movidos, ou zero se o campo foi gerado de novo.
+     */
+    private int reanchor(int x, int y) {
+        int anchor = this.anchor;
+        this.anchor = -1;
+        int position = this.width * y + x;
+        if (anchor == position) {
+            return 0;
+        }
+
+        int[] zone = new int[this.topology.getMaxDegree() + 1];
+        int size = zone(position, zone);
+        int needed = (this.cells[position] & LABEL_MASK) == LABEL_NEUTRALIZER ? 1 : 0;
+        for (int i = 0; i < size; i++) {
+            if ((this.cells[zone[i]] & LABEL_MASK) == LABEL_MINE) {
+                needed++;
+            }
+        }
+        if (!hasFreeCells(position, needed)) {
+            init(x, y);
+            return 0;
+        }
+
+        int moved = 0;
+        if ((this.cells[position] & LABEL_MASK) == LABEL_NEUTRALIZER) {
+            int target = findFreeCell(anchor, position);
+            this.cells[position] = (byte) countMines(position);
+            this.cells[target] = LABEL_NEUTRALIZER;
+            refreshNeutralization(position);
+            refreshNeutralization(target);
+            this.regions.invalidateAround(position);
+            this.regions.invalidateAround(target);
+            moved++;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if ((this.cells[zone[i]] & LABEL_MASK) == LABEL_MINE) {
+                int target = findFreeCell(anchor, position);
+                moveMine(zone[i], target);
+                this.regions.invalidateAround(zone[i]);
+                this.regions.invalidateAround(target);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Grava em {@code out} a área livre ao redor da posição dada: a própria posição e os seus
+     * vizinhos, em ordem crescente de posição.
+     *
+     * @return o tamanho da área.
+     */
+    private int zone(int position, int[] out) {
+        int size = this.topology.neighbors(position, out);
+        out[size++] = position;
+        for (int i = 1; i < size; i++) {
+            int value = out[i];
+            int j = i - 1;
+            for (; j >= 0 && out[j] > value; j--) {
+                out[j + 1] = out[j];
+            }
+            out[j + 1] = value;
+        }
+        return size;
+    }
+
+    /**
+     * Retorna se há ao menos {@code needed} quadrados sem mina nem neutralizador fora da área livre ao
+     * redor da posição dada. A varredura para assim que os encontra, então só percorre o campo inteiro
+     * quando ele está quase cheio.
+     */
+    private boolean hasFreeCells(int position, int needed) {
+        int found = 0;
+        for (int cell = 0; cell < this.cells.length && found < needed; cell++) {
+            if (isFreeOutside(cell, position)) {
+                found++;
+            }
+        }
+        return found >= needed;
+    }
+
+    /**
+     * Procura um quadrado sem mina nem neutralizador fora da área livre ao redor da posição dada,
+     * começando pela área livre gerada ao redor de {@code anchor} e, só se ela estiver esgotada,
+     * pelo resto do campo.
+     */
+    private int findFreeCell(int anchor, int position) {
+        int[] zone = new int[this.topology.getMaxDegree() + 1];
+        int size = zone(anchor, zone);
+        for (int i = 0; i < size; i++) {
+            if (isFreeOutside(zone[i], position)) {
+                return zone[i];
+            }
+        }
+        for (int cell = 0; cell < this.cells.length; cell++) {
+            if (isFreeOutside(cell, position)) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Retorna se o quadrado dado não tem mina nem neutralizador e está fora da área livre ao redor da posição dada.
+     */
+    private boolean isFreeOutside(int cell, int position) {
+        int label = this.cells[cell] & LABEL_MASK;
+        return label < LABEL_MINE && cell != position && !this.topology.isNeighbor(position, cell);
+    }
+
+    /**
+     * Move a mina de uma posição para outra livre, atualizando os rótulos das duas vizinhanças.
+     */
+    private void moveMine(int from, int to) {
+        this.cells[from] = 0;
+        addToNeighborLabels(from, -1);
+        this.cells[from] = (byte) countMines(from);
+
+        this.cells[to] = LABEL_MINE;
+        addToNeighborLabels(to, 1);
+        refreshNeutralization(to);
+    }
+
+    /**
+     * Soma {@code delta} ao rótulo dos vizinhos da posição dada que não são minas nem neutralizadores.
+     */
+    private void addToNeighborLabels(int position, int delta) {
+        int cellClass = this.topology.classes[position];
+        for (int i = this.topology.starts[cellClass]; i < this.topology.starts[cellClass + 1]; i++) {
+            int neighbor = position + this.topology.deltas[i];
+            if ((this.cells[neighbor] & LABEL_MASK) < LABEL_MINE) {
+                this.cells[neighbor] += delta;
+            }
+        }
+    }
+
+    /**
+     * Conta as minas vizinhas da posição dada.
+     */
+    private int countMines(int position) {
+        int cellClass = this.topology.classes[position];
+        int mines = 0;
+        for (int i = this.topology.starts[cellClass]; i < this.topology.starts[cellClass + 1]; i++) {
+            if ((this.cells[position + this.topology.deltas[i]] & LABEL_MASK) == LABEL_MINE) {
+                mines++;
+            }
+        }
+        return mines;
+    }
+
+    /**
+     * Retorna se a posição dada tem algum neutralizador vizinho.
+     */
+    private boolean hasNeutralizerNeighbor(int position) {
+        int cellClass = this.topology.classes[position];
+        for (int i = this.topology.starts[cellClass]; i < this.topology.starts[cellClass + 1]; i++) {
+            if ((this.cells[position + this.topology.deltas[i]] & LABEL_MASK) == LABEL_NEUTRALIZER) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Recalcula se as minas na posição dada e ao seu redor estão neutralizadas, isto é,
+     * se têm algum neutralizador vizinho.
+     */
+    private void refreshNeutralization(int position) {
+        int[] zone = new int[this.topology.getMaxDegree() + 1];
+        int size = zone(position, zone);
+        for (int i = 0; i < size; i++) {
+            int mine = zone[i];
+            if ((this.cells[mine] & LABEL_MASK) == LABEL_MINE) {
+                this.cells[mine] = (byte) (hasNeutralizerNeighbor(mine) ? LABEL_MINE | DEAD : LABEL_MINE);
+            }
+        }
+    }
+
+    /**
+     * Distribui os neutralizadores pelo espaço do jogo, sorteando sem reposição entre as posições
+     * livres que sobraram em {@code candidates} depois de {@link #putMines(Random, int[], int)},
+     * acrescidas dos vizinhos da posição inicial.
+     *
+     * @return o fim dos neutralizadores em {@code candidates}, que ocupam as posições a partir de
+     * {@link #mineQuantity}.
+     */
+    private int putNeutralizers(Random random, int[] candidates, int eligible, int initial) {
+        int[] zone = new int[this.topology.getMaxDegree() + 1];
+        int size = zone(initial, zone);
+        int end = eligible;
+        for (int i = 0; i < size; i++) {
+            if (zone[i] != initial) {
+                candidates[end++] = zone[i];
+            }
+        }
+
+        int last = Math.min(this.mineQuantity + NEUTRALIZERS, end);
+        for (int i = this.mineQuantity; i < last; i++) {
+            pick(random, candidates, i, end);
+        }
+        return last;
+    }
+
+    /**
+     * Distribui as minas pelo espaço do jogo. Os rótulos de todo o campo são calculados depois,
+     * de uma vez, por {@link #label(int[], int, int)}.
+     * <p>
+     * As posições elegíveis (fora da área livre ao redor da posição inicial) são listadas em
+     * {@code candidates} e as minas são sorteadas com um Fisher–Yates parcial, sem reposição:
+     * o custo é linear no tamanho do campo para qualquer densidade, sem sorteios repetidos.
+     * Se houver mais minas que posições elegíveis, todas as posições elegíveis recebem minas.
+     *
+     * @return quantidade de posições elegíveis; as primeiras {@link #mineQuantity} de
+     * {@code candidates} receberam minas e as demais continuam livres.
+     */
+    private int putMines(Random random, int[] candidates, int initial) {
+        // A área livre é marcada com o bit de revelado, ainda sem uso antes da geração.
+        Arrays.fill(this.cells, (byte) 0);
+        int[] zone = new int[this.topology.getMaxDegree() + 1];
+        int size = zone(initial, zone);
+        for (int i = 0; i < size; i++) {
+            this.cells[zone[i]] = REVEALED;
+        }
+        int eligible = 0;
+        for (int position = 0; position < this.cells.length; position++) {
+            if (this.cells[position] == 0) {
+                candidates[eligible++] = position;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            this.cells[zone[i]] = 0;
+        }
+
+        this.mineQuantity = Math.min(this.requestedMineQuantity, eligible);
+        for (int i = 0; i < this.mineQuantity; i++) {
+            pick(random, candidates, i, eligible);
+        }
+        return eligible;
+    }
+
+    /**
+     * Passo do Fisher–Yates: sorteia uma posição de {@code candidates[index..end)} e a troca com
+     * {@code candidates[index]}.
+     *
+     * @return a posição sorteada.
+     */
+    private static int pick(Random random, int[] candidates, int index, int end) {
+        int chosen = index + random.nextInt(end - index);
+        int position = candidates[chosen];
+        candidates[chosen] = candidates[index];
+        candidates[index] = position;
+        return position;
+    }
+
+    /**
+     * Grava o rótulo de todos os quadrados, dadas as minas em {@code positions[0..mines)} e os
+     * neutralizadores em {@code positions[mines..end)}. Na vizinhança quadrada o cálculo é feito em
+     * bloco por {@link LabelKernel}; nas demais, cada mina incrementa o rótulo dos vizinhos e cada
+     * neutralizador mata as minas vizinhas.
+     */
+    private void label(int[] positions, int mines, int end) {
+        if (this.topology.getKind() == Topology.Kind.SQUARE) {
+            long[] mineRows = LabelKernel.newBoard(this.width, this.height);
+            long[] neutralizerRows = LabelKernel.newBoard(this.width, this.height);
+            for (int i = 0; i < end; i++) {
+                LabelKernel.set(i < mines ? mineRows : neutralizerRows, this.width, positions[i]);
+            }
+            LabelKernel.label(mineRows, neutralizerRows, this.width, this.height, this.cells);
+            return;
+        }
+        Arrays.fill(this.cells, (byte) 0);
+        for (int i = 0; i < mines; i++) {
+            this.cells[positions[i]] = LABEL_MINE;
+            addToNeighborLabels(positions[i], 1);
+        }
+        for (int i = mines; i < end; i++) {
+            this.cells[positions[i]] = LABEL_NEUTRALIZER;
+        }
+        for (int i = 0; i < mines; i++) {
+            if (hasNeutralizerNeighbor(positions[i])) {
+                this.cells[positions[i]] |= DEAD;
+            }
+        }
+    }
+
+    /**
+     * Grava o estado dos quadrados em quatro mapas de bits, um bit por quadrado na ordem das
+     * posições: minas, neutralizadores, revelados e marcados. Usado por {@link MinesweeperSnapshot}.
+     */
+    void packBits(byte[] mines, byte[] neutralizers, byte[] revealed, byte[] flagged) {
+        for (int position = 0; position < this.cells.length; position++) {
+            byte cell = this.cells[position];
+            int bit = 1 << (position & 7);
+            int index = position >>> 3;
+            int label = cell & LABEL_MASK;
+            if (label == LABEL_MINE) {
+                mines[index] |= bit;
+            } else if (label == LABEL_NEUTRALIZER) {
+                neutralizers[index] |= bit;
+            }
+            if ((cell & REVEALED) != 0) {
+                revealed[index] |= bit;
+            }
+            if ((cell & FLAGGED) != 0) {
+                flagged[index] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Restaura o jogo a partir dos mapas de bits gravados por {@link #packBits(byte[], byte[], byte[], byte[])}:
+     * junta as posições das minas e dos neutralizadores, calcula os rótulos com
+     * {@link #label(int[], int, int)} e as regiões vazias e, por fim, marca os revelados e os marcados.
+     * As regiões com um quadrado vazio já revelado ou marcado ficam desatualizadas, já que podem ter
+     * sido reveladas só em parte.
+     *
+     * @param flagged mapa de bits dos marcados, ou null se não houver nenhum
+     */
+    void unpackBits(byte[] mines, byte[] neutralizers, byte[] revealed, byte[] flagged, GameStatus status, int anchor, int revealedCellsQuantity) {
+        int[] positions = workQueue();
+        int mineCount = 0;
+        for (int position = 0; position < this.cells.length; position++) {
+            if ((mines[position >>> 3] & (1 << (position & 7))) != 0) {
+                positions[mineCount++] = position;
+            }
+        }
+        int end = mineCount;
+        for (int position = 0; position < this.cells.length; position++) {
+            int bit = 1 << (position & 7);
+            if ((neutralizers[position >>> 3] & bit) != 0 && (mines[position >>> 3] & bit) == 0) {
+                positions[end++] = position;
+            }
+        }
+        label(positions, mineCount, end);
+        this.regions = RegionIndex.build(this.cells, this.topology);
+        for (int position = 0; position < this.cells.length; position++) {
+            if ((revealed[position >>> 3] & (1 << (position & 7))) != 0) {
+                this.cells[position] |= REVEALED;
+            } else if (flagged != null && (flagged[position >>> 3] & (1 << (position & 7))) != 0) {
+                this.cells[position] |= FLAGGED;
+                this.flaggedCellsQuantity++;
+            } else {
+                continue;
+            }
+            if ((this.cells[position] & LABEL_MASK) == 0) {
+                this.regions.invalidate(position);
+            }
+        }
+        this.initialized = true;
+        this.status = status;
+        this.gameOverReported = status != PLAYING;
+        this.anchor = anchor;
+        this.revealedCellsQuantity = revealedCellsQuantity;
+    }
+
+    /**
+     * Retorna a memória estimada do jogo, em bytes: os quadrados, a fila de trabalho e as regiões
+     * vazias, depois de alocadas, e o que o histórico de desfazer já alocou. A vizinhança, compartilhada
+     * entre jogos do mesmo tamanho, não entra na conta.
+     */
+    public long footprint() {
+        long bytes = this.cells.length;
+        if (this.queue != null) {
+            bytes += 4L * this.queue.length;
+        }
+        if (this.regions != null) {
+            bytes += this.regions.footprint();
+        }
+        if (this.history != null) {
+            bytes += 4L * this.history.getAllocated();
+        }
+        return bytes;
+    }
+
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    int getAnchor() {
+        return anchor;
+    }
+
+    int getRevealedCellsQuantity() {
+        return revealedCellsQuantity;
+    }
+
+    /**
+     * Passa a registrar as jogadas no diário dado, ou para de registrar se for null. O diário deve
+     * ter sido criado para este jogo, com {@link MoveJournal#MoveJournal(Minesweeper, java.nio.channels.WritableByteChannel)}.
+     */
+    public void setJournal(MoveJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Passa a enviar as medições do jogo para o listener dado, ou desliga a medição se for null.
+     */
+    public void setMetricsListener(MetricsListener metrics) {
+        this.metrics = metrics != null ? metrics : MetricsListener.NONE;
+    }
+
+    /**
+     * Retorna o status do jogo.
+     */
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Retorna a quantidade de minas do jogo.
+     */
+    public int getMineQuantity() {
+        return mineQuantity;
+    }
+
+    /**
+     * Retorna a semente usada no sorteio das minas e neutralizadores.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retorna a largura do jogo.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retorna a altura do jogo.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retorna a vizinhança dos quadrados do jogo.
+     */
+    public Topology getTopology() {
+        return topology;
+    }
+}
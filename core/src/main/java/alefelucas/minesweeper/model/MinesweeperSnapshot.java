@@ -0,0 +1,165 @@
+package alefelucas.minesweeper.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Formato binário compacto do estado completo de um {@link Minesweeper}, para salvar e restaurar
+ * um jogo em andamento, seja num {@code Bundle} ou num arquivo.
+ * <p>
+ * O formato começa com um cabeçalho versionado (dimensões, quantidade de minas, semente, status,
+ * área livre pendente, contadores e vizinhança) seguido, se o campo já foi gerado, de três mapas de bits com
+ * um bit por quadrado: minas, neutralizadores e revelados, e de um quarto, o dos marcados, só se
+ * houver algum quadrado marcado. Um campo de um milhão de quadrados
+ * ocupa cerca de 375 KB. Na restauração, os rótulos são recalculados a partir das minas numa
+ * única passada, direto na tabela de bytes do jogo.
+ *
+ * @author Álefe Lucas
+ */
+public final class MinesweeperSnapshot {
+
+    private static final int MAGIC = 0x4D535750;
+
+    /**
+     * Versão atual do formato. A versão 1, anterior à gravação da vizinhança, ainda é lida, sempre
+     * com a vizinhança quadrada; as demais são rejeitadas na leitura.
+     */
+    public static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 4 + 1 + 4 + 4 + 4 + 8 + 1 + 1 + 4 + 4 + 1;
+
+    private static final int FLAG_INITIALIZED = 1;
+    private static final int FLAG_FLAGGED = 2;
+
+    private MinesweeperSnapshot() {
+    }
+
+    /**
+     * Grava o jogo num vetor de bytes.
+     */
+    public static byte[] toBytes(Minesweeper minesweeper) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size(minesweeper));
+        try {
+            write(minesweeper, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restaura um jogo gravado por {@link #toBytes(Minesweeper)}.
+     *
+     * @throws IllegalArgumentException se os bytes não forem um snapshot válido de uma versão suportada.
+     */
+    public static Minesweeper fromBytes(byte[] snapshot) {
+        try {
+            return read(new ByteArrayInputStream(snapshot));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid snapshot", e);
+        }
+    }
+
+    /**
+     * Retorna o tamanho, em bytes, do snapshot do jogo dado.
+     */
+    public static int size(Minesweeper minesweeper) {
+        int bitsetSize = bitsetSize(minesweeper.getWidth() * minesweeper.getHeight());
+        int bitsets = minesweeper.isInitialized() ? (hasFlags(minesweeper) ? 4 : 3) : 0;
+        return HEADER_SIZE + bitsets * bitsetSize;
+    }
+
+    /**
+     * Grava o jogo no fluxo dado. O fluxo não é fechado.
+     */
+    public static void write(Minesweeper minesweeper, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(minesweeper.getWidth());
+        data.writeInt(minesweeper.getHeight());
+        data.writeInt(minesweeper.getMineQuantity());
+        data.writeLong(minesweeper.getSeed());
+        data.writeByte(minesweeper.getStatus().ordinal());
+        data.writeByte((minesweeper.isInitialized() ? FLAG_INITIALIZED : 0) | (hasFlags(minesweeper) ? FLAG_FLAGGED : 0));
+        data.writeInt(minesweeper.getAnchor());
+        data.writeInt(minesweeper.getRevealedCellsQuantity());
+        data.writeByte(minesweeper.getTopology().getKind().ordinal());
+        if (minesweeper.isInitialized()) {
+            int bitsetSize = bitsetSize(minesweeper.getWidth() * minesweeper.getHeight());
+            byte[] mines = new byte[bitsetSize];
+            byte[] neutralizers = new byte[bitsetSize];
+            byte[] revealed = new byte[bitsetSize];
+            byte[] flagged = new byte[bitsetSize];
+            minesweeper.packBits(mines, neutralizers, revealed, flagged);
+            data.write(mines);
+            data.write(neutralizers);
+            data.write(revealed);
+            if (hasFlags(minesweeper)) {
+                data.write(flagged);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Lê um jogo gravado por {@link #write(Minesweeper, OutputStream)}.
+     *
+     * @throws IOException se o fluxo terminar antes do fim do snapshot, ou se ele não for um
+     *                     snapshot válido de uma versão suportada.
+     */
+    public static Minesweeper read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a minesweeper snapshot");
+        }
+        int version = data.readUnsignedByte();
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int width = data.readInt();
+        int height = data.readInt();
+        int mineQuantity = data.readInt();
+        long seed = data.readLong();
+        int status = data.readUnsignedByte();
+        int flags = data.readUnsignedByte();
+        int anchor = data.readInt();
+        int revealedCellsQuantity = data.readInt();
+        int kind = version == 1 ? Topology.Kind.SQUARE.ordinal() : data.readUnsignedByte();
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE || status >= GameStatus.values().length ||
+                kind >= Topology.Kind.values().length) {
+            throw new IOException("Corrupted snapshot header");
+        }
+
+        Minesweeper minesweeper = new Minesweeper(Topology.of(Topology.Kind.values()[kind], width, height), mineQuantity, seed);
+        if ((flags & FLAG_INITIALIZED) != 0) {
+            int bitsetSize = bitsetSize(width * height);
+            byte[] mines = new byte[bitsetSize];
+            byte[] neutralizers = new byte[bitsetSize];
+            byte[] revealed = new byte[bitsetSize];
+            data.readFully(mines);
+            data.readFully(neutralizers);
+            data.readFully(revealed);
+            byte[] flagged = null;
+            if ((flags & FLAG_FLAGGED) != 0) {
+                flagged = new byte[bitsetSize];
+                data.readFully(flagged);
+            }
+            minesweeper.unpackBits(mines, neutralizers, revealed, flagged, GameStatus.values()[status], anchor, revealedCellsQuantity);
+        }
+        return minesweeper;
+    }
+
+    private static boolean hasFlags(Minesweeper minesweeper) {
+        return minesweeper.isInitialized() && minesweeper.getFlaggedCellsQuantity() > 0;
+    }
+
+    private static int bitsetSize(int cells) {
+        return (cells + 7) >>> 3;
+    }
+}
@@ -0,0 +1,360 @@
+package alefelucas.minesweeper.model;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Diário de jogadas de um {@link Minesweeper}, gravado só por acréscimo num canal NIO. Com a
+ * semente e o diário, qualquer jogo, ou qualquer ponto dele, pode ser reconstruído por
+ * {@link #replay(ReadableByteChannel, long)} sem guardar o campo a cada jogada.
+ * <p>
+ * O diário começa com um cabeçalho fixo (dimensões, quantidade de minas, semente, a área livre
+ * de um campo gerado por {@link Minesweeper#prepare(int, int)} e a vizinhança), seguido de uma jogada por
+ * registro, codificada como um varint de {@code (posição << 3) | operação}: uma jogada num campo
+ * de até 16x16 ocupa um byte, e num campo de um milhão de quadrados, no máximo quatro. Além das
+ * revelações, o diário guarda os lotes, as aberturas ao redor de números, as marcas, os desfazer,
+ * os refazer e o limite do histórico de desfazer, para que o jogo refeito tenha o mesmo histórico. Os registros são acumulados num buffer e só vão para o canal quando ele enche, em
+ * {@link #flush()} ou em {@link #close()}.
+ *
+ * @author Álefe Lucas
+ */
+public class MoveJournal implements Closeable, Flushable {
+
+    /**
+     * Operação de revelar um quadrado, por {@link Minesweeper#reveal(int, int)}.
+     */
+    static final int OP_REVEAL = 0;
+
+    /**
+     * Operação de desfazer a última jogada, por {@link Minesweeper#undo()}.
+     */
+    static final int OP_UNDO = 1;
+
+    /**
+     * Operação de refazer a última jogada desfeita, por {@link Minesweeper#redo()}.
+     */
+    static final int OP_REDO = 2;
+
+    /**
+     * Mudança do limite do histórico de desfazer, por {@link Minesweeper#enableUndo(int)}; o
+     * registro traz o limite no lugar da posição.
+     */
+    static final int OP_UNDO_CAPACITY = 3;
+
+    /**
+     * Marca ou desmarca de um quadrado, por {@link Minesweeper#setFlagged(int, int, boolean)}; o
+     * registro traz {@code (posição << 1) | marcado} no lugar da posição.
+     */
+    static final int OP_FLAG = 4;
+
+    /**
+     * Lote de revelações, por {@link Minesweeper#revealAll(int[])}; o registro traz a quantidade de
+     * posições no lugar da posição e é seguido das posições, cada uma num varint sem operação.
+     */
+    static final int OP_BATCH = 5;
+
+    /**
+     * Abertura dos vizinhos de um número, por {@link Minesweeper#chord(int, int)}.
+     */
+    static final int OP_CHORD = 6;
+
+    private static final int OP_BITS = 3;
+    private static final int OP_MASK = (1 << OP_BITS) - 1;
+
+    private static final int MAGIC = 0x4D534A4E;
+
+    /**
+     * Versão atual do formato. A versão 1, anterior à gravação da vizinhança, ainda é refeita, sempre
+     * com a vizinhança quadrada.
+     */
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE_V1 = 4 + 1 + 4 + 4 + 4 + 8 + 4;
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Tamanho máximo de um varint de 64 bits.
+     */
+    private static final int MAX_VARINT_SIZE = 10;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long moves;
+
+    /**
+     * Primeiro erro de escrita. As jogadas não podem falhar por causa do diário, então o erro é
+     * guardado, o diário para de escrever e o erro é lançado em {@link #flush()} ou {@link #close()}.
+     */
+    private IOException failure;
+
+    /**
+     * Cria o diário do jogo dado, gravando o cabeçalho no canal, e passa a registrar as jogadas do jogo.
+     *
+     * @throws IllegalStateException se o jogo já tiver começado.
+     */
+    public MoveJournal(Minesweeper minesweeper, WritableByteChannel channel) throws IOException {
+        if (minesweeper.isInitialized() && minesweeper.getAnchor() < 0) {
+            throw new IllegalStateException("The game has already started");
+        }
+        this.channel = channel;
+        this.buffer.putInt(MAGIC);
+        this.buffer.put((byte) VERSION);
+        this.buffer.putInt(minesweeper.getWidth());
+        this.buffer.putInt(minesweeper.getHeight());
+        this.buffer.putInt(minesweeper.getMineQuantity());
+        this.buffer.putLong(minesweeper.getSeed());
+        this.buffer.putInt(minesweeper.getAnchor());
+        this.buffer.put((byte) minesweeper.getTopology().getKind().ordinal());
+        if (minesweeper.getUndoCapacity() > 0) {
+            append(OP_UNDO_CAPACITY, minesweeper.getUndoCapacity());
+        }
+        drain();
+        if (this.failure != null) {
+            throw this.failure;
+        }
+        minesweeper.setJournal(this);
+    }
+
+    /**
+     * Acrescenta uma jogada ao diário.
+     */
+    void append(int operation, int position) {
+        if (this.failure != null) {
+            return;
+        }
+        if (this.buffer.remaining() < MAX_VARINT_SIZE) {
+            drain();
+        }
+        long value = ((long) position << OP_BITS) | operation;
+        while ((value & ~0x7FL) != 0) {
+            this.buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        this.buffer.put((byte) value);
+        this.moves++;
+    }
+
+    /**
+     * Acrescenta um lote de revelações ao diário, como uma única jogada.
+     */
+    void appendBatch(int[] positions, int count) {
+        append(OP_BATCH, count);
+        for (int i = 0; i < count && this.failure == null; i++) {
+            if (this.buffer.remaining() < MAX_VARINT_SIZE) {
+                drain();
+            }
+            int value = positions[i];
+            while ((value & ~0x7F) != 0) {
+                this.buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            this.buffer.put((byte) value);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de jogadas registradas.
+     */
+    public long getMoveCount() {
+        return moves;
+    }
+
+    /**
+     * Grava no canal as jogadas acumuladas no buffer.
+     *
+     * @throws IOException se alguma escrita no canal tiver falhado.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Grava as jogadas acumuladas e fecha o canal.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void drain() {
+        if (this.failure != null) {
+            return;
+        }
+        this.buffer.flip();
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Reconstrói o jogo completo gravado no canal dado.
+     */
+    public static Minesweeper replay(ReadableByteChannel channel) throws IOException {
+        return replay(channel, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reconstrói o jogo gravado no canal dado até a jogada {@code moves}, ou até o fim do diário
+     * se ele tiver menos jogadas. As jogadas são refeitas direto no modelo, sem copiar as posições
+     * reveladas por cada uma.
+     *
+     * @throws IOException se o canal não contiver um diário válido de uma versão suportada.
+     */
+    public static Minesweeper replay(ReadableByteChannel channel, long moves) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        if (!fill(channel, buffer, HEADER_SIZE_V1)) {
+            throw new EOFException("Journal header is truncated");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a move journal");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int mineQuantity = buffer.getInt();
+        long seed = buffer.getLong();
+        int anchor = buffer.getInt();
+        int kind = Topology.Kind.SQUARE.ordinal();
+        if (version != 1) {
+            if (!fill(channel, buffer, 1)) {
+                throw new EOFException("Journal header is truncated");
+            }
+            kind = buffer.get() & 0xFF;
+        }
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE || anchor >= width * height ||
+                kind >= Topology.Kind.values().length) {
+            throw new IOException("Corrupted journal header");
+        }
+
+        Minesweeper minesweeper = new Minesweeper(Topology.of(Topology.Kind.values()[kind], width, height), mineQuantity, seed);
+        if (anchor >= 0) {
+            minesweeper.prepare(anchor % width, anchor / width);
+        }
+        for (long move = 0; move < moves; move++) {
+            if (!fill(channel, buffer, 1)) {
+                break;
+            }
+            long value = readVarint(channel, buffer);
+            long argument = value >>> OP_BITS;
+            if (argument > Integer.MAX_VALUE) {
+                throw new IOException("Corrupted move record");
+            }
+            apply(minesweeper, (int) (value & OP_MASK), (int) argument, channel, buffer);
+        }
+        return minesweeper;
+    }
+
+    private static void apply(Minesweeper minesweeper, int operation, int argument, ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        int width = minesweeper.getWidth();
+        int cells = width * minesweeper.getHeight();
+        switch (operation) {
+            case OP_REVEAL:
+                if (argument >= cells) {
+                    throw new IOException("Move outside the board");
+                }
+                minesweeper.revealInPlace(argument % width, argument / width);
+                break;
+            case OP_FLAG:
+                if (argument >>> 1 >= cells) {
+                    throw new IOException("Move outside the board");
+                }
+                minesweeper.setFlagged((argument >>> 1) % width, (argument >>> 1) / width, (argument & 1) != 0);
+                break;
+            case OP_BATCH:
+                // A quantidade vem do arquivo, então o vetor cresce com as posições de fato lidas.
+                int[] positions = new int[Math.min(argument, cells)];
+                for (int i = 0; i < argument; i++) {
+                    long position = readVarint(channel, buffer);
+                    if (position >= cells) {
+                        throw new IOException("Move outside the board");
+                    }
+                    if (i == positions.length) {
+                        positions = Arrays.copyOf(positions, (int) Math.min(argument, 2L * i));
+                    }
+                    positions[i] = (int) position;
+                }
+                minesweeper.revealAllInPlace(positions, argument);
+                break;
+            case OP_CHORD:
+                if (argument >= cells) {
+                    throw new IOException("Move outside the board");
+                }
+                minesweeper.chordInPlace(argument % width, argument / width);
+                break;
+            case OP_UNDO_CAPACITY:
+                minesweeper.enableUndo(argument);
+                break;
+            case OP_UNDO:
+                minesweeper.undo();
+                break;
+            case OP_REDO:
+                minesweeper.redo();
+                break;
+            default:
+                throw new IOException("Unknown journal operation " + operation);
+        }
+    }
+
+    /**
+     * Lê um varint de até 64 bits.
+     *
+     * @throws IOException se o canal terminar antes do fim do varint.
+     */
+    private static long readVarint(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift >= 64 || !fill(channel, buffer, 1)) {
+                throw new IOException("Truncated move record");
+            }
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Garante ao menos {@code needed} bytes disponíveis no buffer, lendo do canal se necessário.
+     *
+     * @return false se o canal terminar antes.
+     */
+    private static boolean fill(ReadableByteChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < needed) {
+                if (channel.read(buffer) < 0) {
+                    return false;
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+        return true;
+    }
+}
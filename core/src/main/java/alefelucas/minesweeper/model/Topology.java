@@ -0,0 +1,239 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+
+/**
+ * Vizinhança dos quadrados de um campo de largura por altura, indexados por {@code y * largura + x}:
+ * quadrada com oito vizinhos ({@link Kind#SQUARE}), quadrada com as bordas ligadas às opostas
+ * ({@link Kind#TORUS}) ou hexagonal com seis vizinhos ({@link Kind#HEX}, linhas ímpares deslocadas
+ * meio quadrado para a direita).
+ * <p>
+ * As vizinhanças são calculadas uma única vez, na construção, numa tabela no formato CSR: os
+ * deslocamentos dos vizinhos de todas as classes de quadrado ficam em sequência em {@link #deltas}, e
+ * os da classe c ocupam {@code deltas[starts[c]..starts[c + 1])}. A classe de um quadrado diz em
+ * quais bordas ele está (e, no hexagonal, a paridade da linha), então há no máximo 32 classes e a
+ * tabela por quadrado é só {@link #classes}, um byte por quadrado, em vez dos 32 bytes de uma tabela
+ * de índices por quadrado. Percorrer os vizinhos é uma varredura linear, sem testes de limite:
+ * <pre>
+ * int c = classes[position];
+ * for (int i = starts[c]; i &lt; starts[c + 1]; i++) {
+ *     int neighbor = position + deltas[i];
+ * }
+ * </pre>
+ * Uma topologia é imutável e pode ser compartilhada por vários jogos; a última criada de cada
+ * tipo é reaproveitada pelas fábricas.
+ *
+ * @author Álefe Lucas
+ */
+public final class Topology {
+
+    /**
+     * Tipo de vizinhança.
+     */
+    public enum Kind {
+        SQUARE, TORUS, HEX
+    }
+
+    private static final int[] SQUARE_DELTA = {-1, -1, 0, -1, 1, -1, -1, 0, 1, 0, -1, 1, 0, 1, 1, 1};
+    private static final int[] HEX_EVEN_DELTA = {-1, -1, 0, -1, -1, 0, 1, 0, -1, 1, 0, 1};
+    private static final int[] HEX_ODD_DELTA = {0, -1, 1, -1, -1, 0, 1, 0, 0, 1, 1, 1};
+
+    /**
+     * Bordas de uma coordenada: nenhuma, a primeira, a última ou as duas (dimensão de tamanho 1).
+     */
+    private static final int EDGE_LOW = 1;
+    private static final int EDGE_HIGH = 2;
+
+    private static final Topology[] LAST = new Topology[Kind.values().length];
+
+    private final Kind kind;
+    private final int width;
+    private final int height;
+
+    /**
+     * Classe de cada quadrado.
+     */
+    final byte[] classes;
+
+    /**
+     * Início dos deslocamentos de cada classe em {@link #deltas}, com uma entrada a mais no fim.
+     */
+    final int[] starts;
+
+    /**
+     * Deslocamentos, em posições, de cada vizinho em relação ao quadrado.
+     */
+    final int[] deltas;
+
+    private final int maxDegree;
+
+    private Topology(Kind kind, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid board size " + width + "x" + height);
+        }
+        this.kind = kind;
+        this.width = width;
+        this.height = height;
+        this.classes = new byte[width * height];
+
+        int classCount = kind == Kind.HEX ? 32 : 16;
+        int[][] classDeltas = new int[classCount][];
+        int[] scratch = new int[8];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cellClass = cellClass(x, y);
+                this.classes[width * y + x] = (byte) cellClass;
+                if (classDeltas[cellClass] == null) {
+                    int count = neighbors(kind, width, height, x, y, scratch);
+                    int[] deltas = Arrays.copyOf(scratch, count);
+                    for (int i = 0; i < count; i++) {
+                        deltas[i] -= width * y + x;
+                    }
+                    classDeltas[cellClass] = deltas;
+                }
+            }
+        }
+
+        this.starts = new int[classCount + 1];
+        int total = 0;
+        int maxDegree = 0;
+        for (int c = 0; c < classCount; c++) {
+            this.starts[c] = total;
+            int degree = classDeltas[c] != null ? classDeltas[c].length : 0;
+            total += degree;
+            maxDegree = Math.max(maxDegree, degree);
+        }
+        this.starts[classCount] = total;
+        this.deltas = new int[total];
+        for (int c = 0; c < classCount; c++) {
+            if (classDeltas[c] != null) {
+                System.arraycopy(classDeltas[c], 0, this.deltas, this.starts[c], classDeltas[c].length);
+            }
+        }
+        this.maxDegree = maxDegree;
+    }
+
+    /**
+     * Retorna a vizinhança quadrada de oito vizinhos do campo dado.
+     */
+    public static Topology square(int width, int height) {
+        return of(Kind.SQUARE, width, height);
+    }
+
+    /**
+     * Retorna a vizinhança quadrada em que as bordas opostas do campo dado são ligadas.
+     */
+    public static Topology torus(int width, int height) {
+        return of(Kind.TORUS, width, height);
+    }
+
+    /**
+     * Retorna a vizinhança hexagonal de seis vizinhos do campo dado.
+     */
+    public static Topology hex(int width, int height) {
+        return of(Kind.HEX, width, height);
+    }
+
+    /**
+     * Retorna a vizinhança do tipo e campo dados, reaproveitando a última criada se for igual.
+     *
+     * @throws IllegalArgumentException se as dimensões não forem positivas.
+     */
+    public static Topology of(Kind kind, int width, int height) {
+        Topology last;
+        synchronized (LAST) {
+            last = LAST[kind.ordinal()];
+        }
+        if (last != null && last.width == width && last.height == height) {
+            return last;
+        }
+        Topology topology = new Topology(kind, width, height);
+        synchronized (LAST) {
+            LAST[kind.ordinal()] = topology;
+        }
+        return topology;
+    }
+
+    private int cellClass(int x, int y) {
+        int column = (x == 0 ? EDGE_LOW : 0) | (x == this.width - 1 ? EDGE_HIGH : 0);
+        int row = (y == 0 ? EDGE_LOW : 0) | (y == this.height - 1 ? EDGE_HIGH : 0);
+        int cellClass = row << 2 | column;
+        return this.kind == Kind.HEX ? (y & 1) << 4 | cellClass : cellClass;
+    }
+
+    /**
+     * Calcula os vizinhos do quadrado (x, y) pela geometria, testando os limites, sem repetições e
+     * sem o próprio quadrado. É a referência da tabela.
+     *
+     * @return a quantidade de vizinhos gravados em {@code out}.
+     */
+    static int neighbors(Kind kind, int width, int height, int x, int y, int[] out) {
+        int[] delta = kind == Kind.HEX ? ((y & 1) == 0 ? HEX_EVEN_DELTA : HEX_ODD_DELTA) : SQUARE_DELTA;
+        int count = 0;
+        for (int i = 0; i < delta.length; i += 2) {
+            int neighborX = x + delta[i];
+            int neighborY = y + delta[i + 1];
+            if (kind == Kind.TORUS) {
+                neighborX = (neighborX + width) % width;
+                neighborY = (neighborY + height) % height;
+            } else if (neighborX < 0 || neighborX >= width || neighborY < 0 || neighborY >= height) {
+                continue;
+            }
+            int neighbor = width * neighborY + neighborX;
+            boolean repeated = neighbor == width * y + x;
+            for (int j = 0; j < count && !repeated; j++) {
+                repeated = out[j] == neighbor;
+            }
+            if (!repeated) {
+                out[count++] = neighbor;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Grava os vizinhos da posição dada em {@code out}, que deve ter {@link #getMaxDegree()} posições.
+     *
+     * @return a quantidade de vizinhos.
+     */
+    public int neighbors(int position, int[] out) {
+        int cellClass = this.classes[position];
+        int count = 0;
+        for (int i = this.starts[cellClass]; i < this.starts[cellClass + 1]; i++) {
+            out[count++] = position + this.deltas[i];
+        }
+        return count;
+    }
+
+    /**
+     * Retorna se as posições dadas são vizinhas.
+     */
+    public boolean isNeighbor(int position, int other) {
+        int cellClass = this.classes[position];
+        for (int i = this.starts[cellClass]; i < this.starts[cellClass + 1]; i++) {
+            if (position + this.deltas[i] == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna a maior quantidade de vizinhos de um quadrado.
+     */
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
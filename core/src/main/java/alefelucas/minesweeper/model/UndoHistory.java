@@ -0,0 +1,194 @@
+package alefelucas.minesweeper.model;
+
+import java.util.Arrays;
+
+/**
+ * Histórico de desfazer e refazer do {@link Minesweeper}. Cada jogada guarda só o que ela mudou:
+ * as posições reveladas, a quantidade de quadrados revelados e o status anteriores. Os registros
+ * ficam num vetor circular de inteiros que começa pequeno e dobra conforme as jogadas, até o limite
+ * dado; cheio no limite, os registros mais antigos são descartados. Então a memória cresce com os
+ * quadrados alterados, e não com o tamanho do campo vezes as jogadas, e nunca passa do limite.
+ * <p>
+ * Cada registro ocupa {@code n + 4} inteiros: {@code n}, as {@code n} posições, {@code n} de novo,
+ * os revelados e o status anteriores. A quantidade no início permite descartar o registro mais
+ * antigo e a do fim permite desempilhar o mais recente. As posições tocadas (uma num toque, várias
+ * num lote) são as primeiras da jogada e ficam complementadas ({@code ~posição}, negativas), sem
+ * ocupar mais espaço; são elas que um refazer joga de novo.
+ *
+ * @author Álefe Lucas
+ */
+final class UndoHistory {
+
+    private static final int RECORD_OVERHEAD = 4;
+
+    /**
+     * Tamanho inicial do vetor circular, se o limite for maior.
+     */
+    private static final int INITIAL_RING = 64;
+
+    private final int capacity;
+    private int[] ring;
+    private int head;
+    private int size;
+
+    /**
+     * Posições tocadas de cada jogada desfeita, na ordem em que foram desfeitas, cada jogada seguida
+     * da sua quantidade de posições.
+     */
+    private int[] redo = new int[16];
+    private int redoSize;
+
+    private int undoneSeeds;
+    private int undoneRevealedCells;
+    private int undoneStatus;
+
+    /**
+     * @param capacity quantidade máxima de inteiros guardados
+     */
+    UndoHistory(int capacity) {
+        this.capacity = capacity;
+        this.ring = new int[Math.min(capacity, INITIAL_RING)];
+    }
+
+    /**
+     * Empilha uma jogada de {@code count} posições, das quais as {@code seeds} primeiras foram tocadas,
+     * descartando as mais antigas se faltar espaço. Uma jogada maior que
+     * todo o histórico esvazia o histórico, já que nenhuma jogada anterior a ela poderia ser desfeita.
+     */
+    void push(int[] positions, int count, int seeds, int revealedCellsBefore, int statusBefore) {
+        int recordSize = count + RECORD_OVERHEAD;
+        if (recordSize > this.capacity) {
+            this.size = 0;
+            return;
+        }
+        if (this.ring.length - this.size < recordSize && this.ring.length < this.capacity) {
+            grow(this.size + recordSize);
+        }
+        while (this.ring.length - this.size < recordSize) {
+            int oldest = this.ring[this.head];
+            this.head = index(oldest + RECORD_OVERHEAD);
+            this.size -= oldest + RECORD_OVERHEAD;
+        }
+        put(count);
+        for (int i = 0; i < count; i++) {
+            put(i < seeds ? ~positions[i] : positions[i]);
+        }
+        put(count);
+        put(revealedCellsBefore);
+        put(statusBefore);
+    }
+
+    /**
+     * Desempilha a jogada mais recente, copiando suas posições para {@code out}. A quantidade de
+     * posições tocadas e os valores anteriores à jogada ficam em {@link #getUndoneSeeds()},
+     * {@link #getUndoneRevealedCells()} e {@link #getUndoneStatus()}.
+     *
+     * @return a quantidade de posições da jogada.
+     */
+    int pop(int[] out) {
+        this.undoneStatus = take();
+        this.undoneRevealedCells = take();
+        int count = take();
+        this.undoneSeeds = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            int position = take();
+            if (position < 0) {
+                position = ~position;
+                this.undoneSeeds++;
+            }
+            out[i] = position;
+        }
+        take();
+        return count;
+    }
+
+    /**
+     * Dobra o vetor circular até caber {@code needed} inteiros ou chegar ao limite, copiando os
+     * registros em ordem para o início do novo vetor.
+     */
+    private void grow(int needed) {
+        int length = this.ring.length;
+        while (length < needed && length < this.capacity) {
+            length = (int) Math.min(this.capacity, 2L * length);
+        }
+        int[] ring = new int[length];
+        int first = Math.min(this.size, this.ring.length - this.head);
+        System.arraycopy(this.ring, this.head, ring, 0, first);
+        System.arraycopy(this.ring, 0, ring, first, this.size - first);
+        this.ring = ring;
+        this.head = 0;
+    }
+
+    /**
+     * Retorna o limite de inteiros guardados.
+     */
+    int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Retorna a quantidade de inteiros já alocados pelo histórico, que só cresce até o limite.
+     */
+    int getAllocated() {
+        return this.ring.length + this.redo.length;
+    }
+
+    boolean canUndo() {
+        return this.size > 0;
+    }
+
+    int getUndoneSeeds() {
+        return undoneSeeds;
+    }
+
+    int getUndoneRevealedCells() {
+        return undoneRevealedCells;
+    }
+
+    int getUndoneStatus() {
+        return undoneStatus;
+    }
+
+    /**
+     * Empilha as posições tocadas {@code positions[0..seeds)} de uma jogada desfeita.
+     */
+    void pushRedo(int[] positions, int seeds) {
+        if (this.redoSize + seeds + 1 > this.redo.length) {
+            this.redo = Arrays.copyOf(this.redo, Math.max(this.redo.length * 2, this.redoSize + seeds + 1));
+        }
+        System.arraycopy(positions, 0, this.redo, this.redoSize, seeds);
+        this.redoSize += seeds;
+        this.redo[this.redoSize++] = seeds;
+    }
+
+    /**
+     * Desempilha as posições tocadas da última jogada desfeita.
+     */
+    int[] popRedo() {
+        int seeds = this.redo[--this.redoSize];
+        this.redoSize -= seeds;
+        return Arrays.copyOfRange(this.redo, this.redoSize, this.redoSize + seeds);
+    }
+
+    boolean canRedo() {
+        return this.redoSize > 0;
+    }
+
+    void clearRedo() {
+        this.redoSize = 0;
+    }
+
+    private void put(int value) {
+        this.ring[index(this.size)] = value;
+        this.size++;
+    }
+
+    private int take() {
+        this.size--;
+        return this.ring[index(this.size)];
+    }
+
+    private int index(int offset) {
+        return (this.head + offset) % this.ring.length;
+    }
+}
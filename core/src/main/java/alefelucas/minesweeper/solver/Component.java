@@ -0,0 +1,117 @@
+package alefelucas.minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import alefelucas.minesweeper.solver.Frontier.Constraint;
+
+/**
+ * Componente independente da fronteira: restrições ligadas entre si por quadrados em comum.
+ * Os quadrados são as variáveis da enumeração, numeradas em ordem de busca em largura pelas
+ * restrições, para que cada restrição seja fechada o quanto antes e a busca seja podada cedo.
+ *
+ * @author Álefe Lucas
+ */
+final class Component {
+
+    final List<Constraint> constraints = new ArrayList<>();
+
+    /**
+     * Posição no campo de cada variável.
+     */
+    int[] cells;
+
+    /**
+     * Variáveis de cada restrição.
+     */
+    int[][] constraintVariables;
+
+    /**
+     * Quantidade de minas de cada restrição.
+     */
+    int[] targets;
+
+    /**
+     * Restrições de cada variável.
+     */
+    int[][] variableConstraints;
+
+    /**
+     * Numera as variáveis e monta os índices entre variáveis e restrições.
+     */
+    void build() {
+        IntList all = new IntList();
+        for (Constraint constraint : this.constraints) {
+            for (int i = 0; i < constraint.size; i++) {
+                all.add(constraint.cells[i]);
+            }
+        }
+        int[] sorted = Frontier.sortedDistinct(all.toArray());
+        int distinct = sorted.length;
+
+        int constraintCount = this.constraints.size();
+        IntList[] byCell = new IntList[distinct];
+        for (int c = 0; c < constraintCount; c++) {
+            Constraint constraint = this.constraints.get(c);
+            for (int i = 0; i < constraint.size; i++) {
+                int id = Arrays.binarySearch(sorted, constraint.cells[i]);
+                if (byCell[id] == null) {
+                    byCell[id] = new IntList();
+                }
+                byCell[id].add(c);
+            }
+        }
+
+        int[] order = new int[distinct];
+        Arrays.fill(order, -1);
+        boolean[] visited = new boolean[constraintCount];
+        int[] queue = new int[constraintCount];
+        int head = 0;
+        int tail = 0;
+        int next = 0;
+        queue[tail++] = 0;
+        visited[0] = true;
+        while (head < tail) {
+            Constraint constraint = this.constraints.get(queue[head++]);
+            for (int i = 0; i < constraint.size; i++) {
+                int id = Arrays.binarySearch(sorted, constraint.cells[i]);
+                if (order[id] >= 0) {
+                    continue;
+                }
+                order[id] = next++;
+                for (int j = 0; j < byCell[id].size(); j++) {
+                    int neighbor = byCell[id].get(j);
+                    if (!visited[neighbor]) {
+                        visited[neighbor] = true;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+
+        this.cells = new int[distinct];
+        this.variableConstraints = new int[distinct][];
+        for (int id = 0; id < distinct; id++) {
+            this.cells[order[id]] = sorted[id];
+            this.variableConstraints[order[id]] = byCell[id].toArray();
+        }
+        this.constraintVariables = new int[constraintCount][];
+        this.targets = new int[constraintCount];
+        for (int c = 0; c < constraintCount; c++) {
+            Constraint constraint = this.constraints.get(c);
+            this.constraintVariables[c] = new int[constraint.size];
+            for (int i = 0; i < constraint.size; i++) {
+                this.constraintVariables[c][i] = order[Arrays.binarySearch(sorted, constraint.cells[i])];
+            }
+            this.targets[c] = constraint.mines;
+        }
+    }
+
+    /**
+     * Retorna a quantidade de variáveis do componente.
+     */
+    int size() {
+        return this.cells.length;
+    }
+}
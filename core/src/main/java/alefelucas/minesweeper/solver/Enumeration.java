@@ -0,0 +1,263 @@
+package alefelucas.minesweeper.solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Enumeração exata de todas as atribuições de minas de um {@link Component} que satisfazem suas
+ * restrições, contando quantas soluções há e em quantas delas cada variável é mina.
+ * <p>
+ * Até a profundidade {@code splitDepth}, cada valor da variável atual vira uma subtarefa de
+ * fork/join, o que divide componentes grandes entre os núcleos. A busca é abandonada ao passar
+ * do prazo: nesse caso {@link #isAborted()} é verdadeiro e as contagens não devem ser usadas.
+ * <p>
+ * Opcionalmente, cada solução recebe um peso que depende da sua quantidade de minas, usado
+ * para estimar a probabilidade de cada variável ser mina ({@link #getProbability(int)}).
+ *
+ * @author Álefe Lucas
+ */
+final class Enumeration extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Quantidade de variáveis a partir da qual a enumeração de um componente é dividida entre
+     * os núcleos; abaixo disso ela roda direto na thread que a pediu.
+     */
+    private static final int PARALLEL_THRESHOLD = 24;
+
+    /**
+     * Quantidade de nós visitados entre duas consultas ao relógio.
+     */
+    private static final int CLOCK_MASK = 0x3FF;
+
+    private final Component component;
+    private final long deadline;
+    private final AtomicBoolean aborted;
+    private final int splitDepth;
+    private final int depth;
+
+    /**
+     * Peso de uma solução pela quantidade de minas, ou null para não calcular probabilidades.
+     */
+    private final double[] weights;
+
+    /**
+     * Minas atribuídas às variáveis anteriores a {@link #depth}.
+     */
+    private final int mines;
+
+    /**
+     * Minas já atribuídas em cada restrição.
+     */
+    private final int[] assigned;
+
+    /**
+     * Variáveis ainda não atribuídas em cada restrição.
+     */
+    private final int[] remaining;
+
+    private final byte[] values;
+
+    private long solutions;
+    private long[] mineHits;
+    private double weightSum;
+    private double[] weightedHits;
+    private int nodes;
+
+    /**
+     * Cria a enumeração de um componente inteiro.
+     *
+     * @param deadline   instante, em {@link System#nanoTime()}, em que a busca é abandonada
+     * @param splitDepth profundidade até a qual a busca é dividida em subtarefas
+     * @param weights    peso de uma solução pela quantidade de minas, com uma posição a mais
+     *                   que a quantidade de variáveis, ou null para não calcular probabilidades
+     */
+    Enumeration(Component component, long deadline, int splitDepth, double[] weights) {
+        this.component = component;
+        this.deadline = deadline;
+        this.aborted = new AtomicBoolean();
+        this.splitDepth = splitDepth;
+        this.weights = weights;
+        this.depth = 0;
+        this.mines = 0;
+        this.assigned = new int[component.targets.length];
+        this.remaining = new int[component.targets.length];
+        for (int c = 0; c < this.remaining.length; c++) {
+            this.remaining[c] = component.constraintVariables[c].length;
+        }
+        this.values = new byte[component.size()];
+    }
+
+    private Enumeration(Enumeration parent, int depth, int mines) {
+        this.component = parent.component;
+        this.deadline = parent.deadline;
+        this.aborted = parent.aborted;
+        this.splitDepth = parent.splitDepth;
+        this.weights = parent.weights;
+        this.depth = depth;
+        this.mines = mines;
+        this.assigned = parent.assigned.clone();
+        this.remaining = parent.remaining.clone();
+        this.values = parent.values.clone();
+    }
+
+    /**
+     * Enumera as soluções do componente, dividindo componentes grandes entre os núcleos do pool.
+     *
+     * @param weights peso de uma solução pela quantidade de minas, ou null
+     */
+    static Enumeration run(Component component, long deadline, double[] weights, ForkJoinPool pool) {
+        if (component.size() < PARALLEL_THRESHOLD) {
+            Enumeration enumeration = new Enumeration(component, deadline, 0, weights);
+            enumeration.invoke();
+            return enumeration;
+        }
+        int splitDepth = 32 - Integer.numberOfLeadingZeros(pool.getParallelism()) + 2;
+        Enumeration enumeration = new Enumeration(component, deadline, splitDepth, weights);
+        pool.invoke(enumeration);
+        return enumeration;
+    }
+
+    @Override
+    protected void compute() {
+        this.mineHits = new long[this.values.length];
+        if (this.weights != null) {
+            this.weightedHits = new double[this.values.length];
+        }
+        if (this.depth >= this.splitDepth || this.depth == this.values.length) {
+            search(this.depth, this.mines);
+            return;
+        }
+
+        Enumeration safe = null;
+        Enumeration mine = null;
+        if (assign(this.depth, 0)) {
+            safe = new Enumeration(this, this.depth + 1, this.mines);
+        }
+        unassign(this.depth, 0);
+        if (assign(this.depth, 1)) {
+            this.values[this.depth] = 1;
+            mine = new Enumeration(this, this.depth + 1, this.mines + 1);
+        }
+        unassign(this.depth, 1);
+
+        if (safe != null && mine != null) {
+            invokeAll(safe, mine);
+        } else if (safe != null) {
+            safe.compute();
+        } else if (mine != null) {
+            mine.compute();
+        }
+        merge(safe);
+        merge(mine);
+    }
+
+    private void merge(Enumeration child) {
+        if (child == null) {
+            return;
+        }
+        this.solutions += child.solutions;
+        for (int i = 0; i < this.mineHits.length; i++) {
+            this.mineHits[i] += child.mineHits[i];
+        }
+        if (this.weights != null) {
+            this.weightSum += child.weightSum;
+            for (int i = 0; i < this.weightedHits.length; i++) {
+                this.weightedHits[i] += child.weightedHits[i];
+            }
+        }
+    }
+
+    /**
+     * Busca em profundidade a partir da variável dada, com {@code mines} minas já atribuídas.
+     */
+    private void search(int variable, int mines) {
+        if (this.aborted.get()) {
+            return;
+        }
+        if ((++this.nodes & CLOCK_MASK) == 0 && System.nanoTime() - this.deadline > 0) {
+            this.aborted.set(true);
+            return;
+        }
+        if (variable == this.values.length) {
+            this.solutions++;
+            for (int i = 0; i < this.values.length; i++) {
+                this.mineHits[i] += this.values[i];
+            }
+            if (this.weights != null) {
+                double weight = this.weights[mines];
+                this.weightSum += weight;
+                for (int i = 0; i < this.values.length; i++) {
+                    this.weightedHits[i] += weight * this.values[i];
+                }
+            }
+            return;
+        }
+        for (byte value = 0; value <= 1; value++) {
+            if (assign(variable, value)) {
+                this.values[variable] = value;
+                search(variable + 1, mines + value);
+            }
+            unassign(variable, value);
+        }
+        this.values[variable] = 0;
+    }
+
+    /**
+     * Atribui o valor à variável, atualizando suas restrições.
+     *
+     * @return se todas as restrições da variável ainda podem ser satisfeitas.
+     */
+    private boolean assign(int variable, int value) {
+        boolean consistent = true;
+        for (int c : this.component.variableConstraints[variable]) {
+            this.remaining[c]--;
+            this.assigned[c] += value;
+            int target = this.component.targets[c];
+            if (this.assigned[c] > target || this.assigned[c] + this.remaining[c] < target) {
+                consistent = false;
+            }
+        }
+        return consistent;
+    }
+
+    /**
+     * Desfaz {@link #assign(int, int)}.
+     */
+    private void unassign(int variable, int value) {
+        for (int c : this.component.variableConstraints[variable]) {
+            this.remaining[c]++;
+            this.assigned[c] -= value;
+        }
+    }
+
+    /**
+     * Retorna se a busca passou do prazo e foi abandonada.
+     */
+    boolean isAborted() {
+        return this.aborted.get();
+    }
+
+    /**
+     * Retorna a quantidade de soluções encontradas.
+     */
+    long getSolutions() {
+        return this.solutions;
+    }
+
+    /**
+     * Retorna a probabilidade de a variável dada ser mina, ponderada pelos pesos das soluções.
+     */
+    double getProbability(int variable) {
+        return this.weightSum > 0 ? this.weightedHits[variable] / this.weightSum : 0;
+    }
+
+    /**
+     * Retorna, para cada variável, em quantas soluções ela é mina.
+     */
+    long[] getMineHits() {
+        return this.mineHits;
+    }
+}
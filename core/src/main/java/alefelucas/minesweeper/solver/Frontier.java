@@ -0,0 +1,398 @@
+package alefelucas.minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+/**
+ * Conhecimento do {@link Solver} sobre o campo: o estado conhecido de cada quadrado e as
+ * restrições dadas pelos números revelados. Cada restrição diz quantas minas há entre os
+ * quadrados desconhecidos vizinhos de um número.
+ *
+ * @author Álefe Lucas
+ */
+final class Frontier {
+
+    static final byte UNKNOWN = 0;
+    static final byte SAFE = 1;
+    static final byte MINE = 2;
+
+    final int width;
+    final int height;
+
+    /**
+     * Estado conhecido de cada quadrado: revelado ou deduzido seguro, mina, ou desconhecido.
+     */
+    final byte[] state;
+
+    final List<Constraint> constraints = new ArrayList<>();
+
+    private final IntList deducedSafe = new IntList();
+    private final IntList deducedMines = new IntList();
+
+    /**
+     * Listas encadeadas da regra de subconjunto, reaproveitadas entre as passagens: {@code first}
+     * guarda, para cada quadrado, o último elo das restrições que o contêm, ou -1, e cada elo
+     * aponta para o anterior em {@code next} e para a sua restrição em {@code owner}. O vetor
+     * {@code first} só é alocado na primeira passagem, e ao fim de cada uma só as entradas usadas
+     * voltam a -1.
+     */
+    private int[] first;
+    private final IntList next = new IntList();
+    private final IntList owner = new IntList();
+
+    /**
+     * Quadrados de uma restrição fora de outra; cabe a maior quantidade de vizinhos de um quadrado,
+     * e portanto de quadrados de uma restrição.
+     */
+    private final int[] difference;
+
+    private Frontier(int width, int height, int maxDegree) {
+        this.width = width;
+        this.height = height;
+        this.state = new byte[width * height];
+        this.difference = new int[maxDegree];
+    }
+
+    /**
+     * Lê os quadrados revelados do jogo e monta as restrições de cada número com vizinhos
+     * não revelados.
+     */
+    static Frontier read(Minesweeper minesweeper) {
+        int width = minesweeper.getWidth();
+        int height = minesweeper.getHeight();
+        int maxDegree = minesweeper.getTopology().getMaxDegree();
+        Frontier frontier = new Frontier(width, height, maxDegree);
+        byte[] cells = new byte[width * height];
+        minesweeper.readRegion(0, 0, width, height, cells, 0);
+        for (int position = 0; position < cells.length; position++) {
+            if ((cells[position] & Minesweeper.REGION_REVEALED) != 0) {
+                frontier.state[position] = Minesweeper.toLabel(cells[position]) == '*' ? MINE : SAFE;
+            }
+        }
+
+        int[] scratch = new int[maxDegree];
+        for (int position = 0; position < cells.length; position++) {
+            char label = Minesweeper.toLabel(cells[position]);
+            if ((cells[position] & Minesweeper.REGION_REVEALED) != 0 && label >= '1' && label <= '8') {
+                Constraint constraint = constraintAt(minesweeper, position % width, position / width, scratch);
+                if (constraint != null) {
+                    frontier.constraints.add(constraint);
+                }
+            }
+        }
+        return frontier;
+    }
+
+    /**
+     * Monta a restrição do número revelado na posição dada: quantas minas há entre seus vizinhos
+     * não revelados, descontadas as minas vizinhas já reveladas.
+     *
+     * @param scratch vetor auxiliar com espaço para {@link alefelucas.minesweeper.model.Topology#getMaxDegree()} vizinhos
+     * @return a restrição, ou null se a posição não for um número revelado com vizinhos não revelados.
+     */
+    static Constraint constraintAt(Minesweeper minesweeper, int x, int y, int[] scratch) {
+        char label = minesweeper.getCellLabel(x, y);
+        if (!minesweeper.isRevealed(x, y) || label < '1' || label > '8') {
+            return null;
+        }
+        int width = minesweeper.getWidth();
+        int count = minesweeper.getTopology().neighbors(width * y + x, scratch);
+        int size = 0;
+        int mines = label - '0';
+        for (int i = 0; i < count; i++) {
+            int neighbor = scratch[i];
+            int neighborX = neighbor % width;
+            int neighborY = neighbor / width;
+            if (!minesweeper.isRevealed(neighborX, neighborY)) {
+                scratch[size++] = neighbor;
+            } else if (minesweeper.getCellLabel(neighborX, neighborY) == '*') {
+                mines--;
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+        int[] cells = Arrays.copyOf(scratch, size);
+        Arrays.sort(cells);
+        return new Constraint(cells, mines);
+    }
+
+    /**
+     * Aplica as regras de um número e de subconjunto até não haver mais deduções:
+     * <ul>
+     * <li>se uma restrição tem zero minas, todos os seus quadrados são seguros;</li>
+     * <li>se tem tantas minas quanto quadrados, todos são minas;</li>
+     * <li>se uma restrição A está contida numa restrição B, os quadrados de B fora de A têm
+     * {@code B.minas - A.minas} minas, o que pode torná-los todos seguros ou todos minas.</li>
+     * </ul>
+     */
+    void propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Constraint constraint : this.constraints) {
+                reduce(constraint);
+                if (constraint.size == 0) {
+                    continue;
+                }
+                if (constraint.mines == 0) {
+                    changed |= markAll(constraint.cells, constraint.size, SAFE);
+                } else if (constraint.mines == constraint.size) {
+                    changed |= markAll(constraint.cells, constraint.size, MINE);
+                }
+            }
+            if (!changed) {
+                changed = applySubsetRule();
+            }
+        }
+    }
+
+    /**
+     * Aplica a regra de subconjunto a cada par de restrições em que uma contém a outra.
+     * Para cada restrição A, só são testadas as restrições que contêm o primeiro quadrado de A.
+     *
+     * @return se alguma dedução foi feita.
+     */
+    private boolean applySubsetRule() {
+        for (Constraint constraint : this.constraints) {
+            reduce(constraint);
+        }
+        if (this.first == null) {
+            this.first = new int[this.state.length];
+            Arrays.fill(this.first, -1);
+        }
+        int[] first = this.first;
+        IntList next = this.next;
+        IntList owner = this.owner;
+        next.clear();
+        owner.clear();
+        for (int i = 0; i < this.constraints.size(); i++) {
+            Constraint constraint = this.constraints.get(i);
+            for (int j = 0; j < constraint.size; j++) {
+                int cell = constraint.cells[j];
+                next.add(first[cell]);
+                owner.add(i);
+                first[cell] = next.size() - 1;
+            }
+        }
+
+        boolean changed = false;
+        int[] difference = this.difference;
+        for (Constraint subset : this.constraints) {
+            if (subset.size == 0) {
+                continue;
+            }
+            for (int link = first[subset.cells[0]]; link >= 0; link = next.get(link)) {
+                Constraint superset = this.constraints.get(owner.get(link));
+                if (superset == subset || superset.size <= subset.size) {
+                    continue;
+                }
+                int size = difference(superset, subset, difference);
+                if (size < 0) {
+                    continue;
+                }
+                int mines = superset.mines - subset.mines;
+                if (mines == 0) {
+                    changed |= markAll(difference, size, SAFE);
+                } else if (mines == size) {
+                    changed |= markAll(difference, size, MINE);
+                }
+            }
+        }
+        for (Constraint constraint : this.constraints) {
+            for (int j = 0; j < constraint.size; j++) {
+                first[constraint.cells[j]] = -1;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Calcula os quadrados de {@code superset} que não estão em {@code subset}.
+     *
+     * @return a quantidade de quadrados gravados em {@code out}, ou -1 se {@code subset}
+     * não estiver contido em {@code superset}.
+     */
+    private static int difference(Constraint superset, Constraint subset, int[] out) {
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < superset.size; i++) {
+            int cell = superset.cells[i];
+            if (j < subset.size && subset.cells[j] == cell) {
+                j++;
+            } else if (j < subset.size && subset.cells[j] < cell) {
+                return -1;
+            } else {
+                out[size++] = cell;
+            }
+        }
+        return j == subset.size ? size : -1;
+    }
+
+    /**
+     * Remove da restrição os quadrados cujo estado já é conhecido, descontando as minas.
+     */
+    void reduce(Constraint constraint) {
+        int size = 0;
+        for (int i = 0; i < constraint.size; i++) {
+            int cell = constraint.cells[i];
+            if (this.state[cell] == UNKNOWN) {
+                constraint.cells[size++] = cell;
+            } else if (this.state[cell] == MINE) {
+                constraint.mines--;
+            }
+        }
+        constraint.size = size;
+    }
+
+    /**
+     * Marca como seguros ou minas os quadrados desconhecidos dados.
+     *
+     * @return se algum quadrado mudou de estado.
+     */
+    private boolean markAll(int[] cells, int size, byte value) {
+        boolean changed = false;
+        for (int i = 0; i < size; i++) {
+            changed |= mark(cells[i], value);
+        }
+        return changed;
+    }
+
+    /**
+     * Marca um quadrado desconhecido como seguro ou mina.
+     *
+     * @return se o quadrado mudou de estado.
+     */
+    boolean mark(int cell, byte value) {
+        if (this.state[cell] != UNKNOWN) {
+            return false;
+        }
+        this.state[cell] = value;
+        (value == SAFE ? this.deducedSafe : this.deducedMines).add(cell);
+        return true;
+    }
+
+    /**
+     * Retorna se alguma posição já foi deduzida.
+     */
+    boolean hasDeductions() {
+        return this.deducedSafe.size() > 0 || this.deducedMines.size() > 0;
+    }
+
+    /**
+     * Agrupa os quadrados desconhecidos das restrições em componentes independentes.
+     */
+    List<Component> components() {
+        List<Constraint> pending = new ArrayList<>();
+        for (Constraint constraint : this.constraints) {
+            reduce(constraint);
+            if (constraint.size > 0) {
+                pending.add(constraint);
+            }
+        }
+        return group(pending);
+    }
+
+    /**
+     * Agrupa as restrições dadas, todas não vazias, em componentes independentes: dois quadrados
+     * estão no mesmo componente se estão ligados por uma cadeia de restrições. Os quadrados são
+     * renumerados localmente, então o custo depende só do tamanho das restrições, e não do campo.
+     */
+    static List<Component> group(List<Constraint> constraints) {
+        IntList all = new IntList();
+        for (Constraint constraint : constraints) {
+            for (int i = 0; i < constraint.size; i++) {
+                all.add(constraint.cells[i]);
+            }
+        }
+        int[] cells = sortedDistinct(all.toArray());
+
+        int[] parent = new int[cells.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (Constraint constraint : constraints) {
+            int first = Arrays.binarySearch(cells, constraint.cells[0]);
+            for (int i = 1; i < constraint.size; i++) {
+                union(parent, first, Arrays.binarySearch(cells, constraint.cells[i]));
+            }
+        }
+
+        int[] componentOf = new int[cells.length];
+        Arrays.fill(componentOf, -1);
+        List<Component> components = new ArrayList<>();
+        for (Constraint constraint : constraints) {
+            int root = find(parent, Arrays.binarySearch(cells, constraint.cells[0]));
+            if (componentOf[root] < 0) {
+                componentOf[root] = components.size();
+                components.add(new Component());
+            }
+            components.get(componentOf[root]).constraints.add(constraint);
+        }
+        for (Component component : components) {
+            component.build();
+        }
+        return components;
+    }
+
+    /**
+     * Ordena o vetor e remove os valores repetidos.
+     */
+    static int[] sortedDistinct(int[] values) {
+        Arrays.sort(values);
+        int distinct = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[i - 1]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, distinct);
+    }
+
+    private static int find(int[] parent, int cell) {
+        int root = cell;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (cell != root) {
+            int next = parent[cell];
+            parent[cell] = root;
+            cell = next;
+        }
+        return root;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+
+    /**
+     * Monta o {@link Hint} com as posições deduzidas.
+     */
+    Hint toHint() {
+        return new Hint(this.deducedSafe.toArray(), this.deducedMines.toArray());
+    }
+
+    /**
+     * Restrição: entre os quadrados {@code cells[0..size)}, exatamente {@code mines} têm minas.
+     */
+    static final class Constraint {
+
+        final int[] cells;
+        int size;
+        int mines;
+
+        Constraint(int[] cells, int mines) {
+            this.cells = cells;
+            this.size = cells.length;
+            this.mines = mines;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package alefelucas.minesweeper.solver;
+
+/**
+ * Resultado de {@link Solver#hint()}: as posições ({@code y * largura + x}) ainda não reveladas
+ * que são comprovadamente seguras e as que comprovadamente têm minas.
+ *
+ * @author Álefe Lucas
+ */
+public class Hint {
+
+    private final int[] safe;
+    private final int[] mines;
+
+    Hint(int[] safe, int[] mines) {
+        this.safe = safe;
+        this.mines = mines;
+    }
+
+    /**
+     * Retorna as posições seguras para revelar.
+     */
+    public int[] getSafe() {
+        return safe;
+    }
+
+    /**
+     * Retorna as posições que têm minas.
+     */
+    public int[] getMines() {
+        return mines;
+    }
+
+    /**
+     * Retorna se nenhuma posição pôde ser deduzida, isto é, se a próxima jogada é um chute.
+     */
+    public boolean isEmpty() {
+        return this.safe.length == 0 && this.mines.length == 0;
+    }
+}
@@ -0,0 +1,47 @@
+package alefelucas.minesweeper.solver;
+
+import java.util.Arrays;
+
+/**
+ * Lista de inteiros primitivos que cresce conforme necessário, sem encaixotar os valores.
+ *
+ * @author Álefe Lucas
+ */
+final class IntList {
+
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size++] = value;
+    }
+
+    int get(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * Remove e retorna o último valor da lista.
+     */
+    int removeLast() {
+        return this.values[--this.size];
+    }
+
+    /**
+     * Esvazia a lista, mantendo o espaço já alocado.
+     */
+    void clear() {
+        this.size = 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+}
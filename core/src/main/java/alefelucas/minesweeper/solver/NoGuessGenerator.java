@@ -0,0 +1,125 @@
+package alefelucas.minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import alefelucas.minesweeper.model.BoardPool;
+import alefelucas.minesweeper.model.GameStatus;
+import alefelucas.minesweeper.model.Minesweeper;
+
+/**
+ * Gerador de campos sem chute: campos que o {@link Solver} resolve até o fim a partir do primeiro
+ * toque, no centro, sem nunca precisar arriscar.
+ * <p>
+ * Gerar, resolver e descartar até achar um campo assim é lento, então vários candidatos são
+ * tentados em paralelo: cada worker sorteia sementes e resolve seus campos até um deles dar certo.
+ * O primeiro campo encontrado é usado e os demais workers são interrompidos por
+ * {@link ExecutorService#invokeAny(java.util.Collection, long, TimeUnit)}. Se nenhum campo for
+ * encontrado dentro do tempo limite, o resultado é um campo comum, como o de
+ * {@link Minesweeper#prepare(int, int)}.
+ * <p>
+ * O campo sem chute é entregue com o primeiro toque já revelado, para que o jogo comece pela
+ * posição a partir da qual ele foi resolvido.
+ *
+ * @author Álefe Lucas
+ */
+public class NoGuessGenerator implements BoardPool.Generator {
+
+    /**
+     * Orçamento de cada dedução do {@link Solver} ao testar um candidato. Um componente que não é
+     * resolvido nesse tempo conta como chute e o candidato é descartado.
+     */
+    private static final long HINT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final long timeoutNanos;
+    private final Random seeds = new Random();
+
+    /**
+     * Constrói o gerador.
+     *
+     * @param workers     executor onde os candidatos são testados; precisa de {@code parallelism}
+     *                    threads livres e não pode ser o executor que chama {@link #generate(int, int, int)}
+     * @param parallelism quantidade de workers testando candidatos ao mesmo tempo
+     * @param timeout     tempo limite da busca, depois do qual é usado um campo comum
+     * @param unit        unidade do tempo limite
+     */
+    public NoGuessGenerator(ExecutorService workers, int parallelism, long timeout, TimeUnit unit) {
+        this.workers = workers;
+        this.parallelism = parallelism;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Gera um campo sem chute, com o centro já revelado, ou um campo comum se o tempo limite
+     * se esgotar antes.
+     */
+    @Override
+    public Minesweeper generate(int height, int width, int mineQuantity) {
+        int startX = width / 2;
+        int startY = height / 2;
+        List<Callable<Minesweeper>> tasks = new ArrayList<>(this.parallelism);
+        for (int i = 0; i < this.parallelism; i++) {
+            long workerSeed;
+            synchronized (this.seeds) {
+                workerSeed = this.seeds.nextLong();
+            }
+            tasks.add(() -> search(height, width, mineQuantity, startX, startY, new Random(workerSeed)));
+        }
+        try {
+            return this.workers.invokeAny(tasks, this.timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Nenhum worker encontrou um campo a tempo; segue com um campo comum.
+        }
+        Minesweeper fallback = new Minesweeper(height, width, mineQuantity);
+        fallback.prepare(startX, startY);
+        return fallback;
+    }
+
+    /**
+     * Testa candidatos até achar um campo sem chute.
+     *
+     * @throws InterruptedException se o worker for cancelado antes de achar um campo.
+     */
+    private static Minesweeper search(int height, int width, int mineQuantity, int startX, int startY, Random random) throws InterruptedException {
+        while (true) {
+            long seed = random.nextLong();
+            if (solves(new Minesweeper(height, width, mineQuantity, seed), startX, startY)) {
+                Minesweeper minesweeper = new Minesweeper(height, width, mineQuantity, seed);
+                minesweeper.reveal(startX, startY);
+                return minesweeper;
+            }
+        }
+    }
+
+    /**
+     * Joga o campo dado a partir da posição inicial revelando só o que o {@link Solver} deduz
+     * como seguro, um lote por dedução, e retorna se isso basta para vencer.
+     *
+     * @throws InterruptedException se a thread for interrompida durante a resolução.
+     */
+    static boolean solves(Minesweeper minesweeper, int startX, int startY) throws InterruptedException {
+        minesweeper.reveal(startX, startY);
+        Solver solver = new Solver(minesweeper);
+        while (minesweeper.getStatus() == GameStatus.PLAYING) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            int[] safe = solver.hint(HINT_BUDGET_NANOS).getSafe();
+            if (safe.length == 0) {
+                return false;
+            }
+            minesweeper.revealAll(safe);
+        }
+        return minesweeper.getStatus() == GameStatus.WON;
+    }
+}
@@ -0,0 +1,249 @@
+package alefelucas.minesweeper.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import alefelucas.minesweeper.model.Minesweeper;
+import alefelucas.minesweeper.solver.Frontier.Constraint;
+
+/**
+ * Mapa de probabilidade de mina de cada quadrado não revelado, atualizado de forma incremental
+ * a cada revelação.
+ * <p>
+ * A fronteira (quadrados não revelados vizinhos de números revelados) é mantida dividida em
+ * componentes independentes, cada um com as probabilidades calculadas pela enumeração de suas
+ * soluções. {@link #update(int[])} recebe as posições reveladas por uma jogada e só recalcula
+ * os componentes que continham ou tocavam essas posições; os demais mantêm as probabilidades
+ * em cache. Os quadrados fora da fronteira compartilham uma única probabilidade, a das minas
+ * que sobram fora da fronteira divididas igualmente entre eles.
+ * <p>
+ * Cada solução de um componente é pesada pela densidade de minas restante, {@code (p/(1-p))^k}
+ * para uma solução com {@code k} minas, aproximando o efeito da quantidade total de minas sem
+ * acoplar os componentes entre si.
+ *
+ * @author Álefe Lucas
+ */
+public class ProbabilityMap {
+
+    /**
+     * Orçamento de cada componente recalculado; se a enumeração não terminar a tempo, os quadrados
+     * do componente recebem a densidade de minas restante.
+     */
+    private static final long COMPONENT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final Minesweeper minesweeper;
+    private final ForkJoinPool pool;
+    private final int width;
+    private final int height;
+
+    /**
+     * Componente de cada quadrado da fronteira, ou -1 para quadrados fora da fronteira.
+     */
+    private final int[] componentOf;
+
+    /**
+     * Probabilidade em cache de cada quadrado da fronteira.
+     */
+    private final float[] probability;
+
+    /**
+     * Quadrados de cada componente, pelo identificador; null para componentes descartados.
+     */
+    private final List<int[]> componentCells = new ArrayList<>();
+
+    /**
+     * Identificadores de componentes descartados, reaproveitados pelos próximos componentes, para que
+     * a quantidade de identificadores acompanhe o tamanho da fronteira e não a quantidade de jogadas.
+     */
+    private final IntList freeIds = new IntList();
+
+    /**
+     * Quantidade esperada de minas de cada componente, pelo identificador.
+     */
+    private double[] componentMines = new double[16];
+
+    private double frontierMines;
+    private int frontierCells;
+    private int revealedCells;
+    private int revealedMines;
+
+    /**
+     * Constrói o mapa do jogo dado, já considerando os quadrados revelados até agora.
+     */
+    public ProbabilityMap(Minesweeper minesweeper) {
+        this(minesweeper, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constrói o mapa do jogo dado, enumerando componentes grandes no pool dado.
+     */
+    public ProbabilityMap(Minesweeper minesweeper, ForkJoinPool pool) {
+        this.minesweeper = minesweeper;
+        this.pool = pool;
+        this.width = minesweeper.getWidth();
+        this.height = minesweeper.getHeight();
+        this.componentOf = new int[this.width * this.height];
+        this.probability = new float[this.width * this.height];
+        Arrays.fill(this.componentOf, -1);
+
+        IntList revealed = new IntList();
+        for (int position = 0; position < this.componentOf.length; position++) {
+            if (minesweeper.isRevealed(position % this.width, position / this.width)) {
+                revealed.add(position);
+            }
+        }
+        update(revealed.toArray());
+    }
+
+    /**
+     * Atualiza o mapa depois de uma jogada, dadas as posições que ela revelou.
+     */
+    public void update(int[] revealed) {
+        IntList seeds = new IntList();
+        int[] neighbors = new int[this.minesweeper.getTopology().getMaxDegree()];
+        for (int position : revealed) {
+            this.revealedCells++;
+            if (label(position) == '*') {
+                this.revealedMines++;
+            }
+            discard(this.componentOf[position], seeds);
+            int count = this.minesweeper.getTopology().neighbors(position, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if (!this.minesweeper.isRevealed(neighbor % this.width, neighbor / this.width)) {
+                    seeds.add(neighbor);
+                    discard(this.componentOf[neighbor], seeds);
+                }
+            }
+        }
+        rebuild(seeds);
+    }
+
+    /**
+     * Retorna a probabilidade de haver uma mina na posição dada; zero para quadrados revelados.
+     */
+    public float getProbability(int x, int y) {
+        if (this.minesweeper.isRevealed(x, y)) {
+            return 0;
+        }
+        int position = this.width * y + x;
+        return this.componentOf[position] >= 0 ? this.probability[position] : (float) interiorProbability();
+    }
+
+    /**
+     * Retorna a probabilidade de mina de um quadrado fora da fronteira.
+     */
+    private double interiorProbability() {
+        int interior = this.componentOf.length - this.revealedCells - this.frontierCells;
+        if (interior <= 0) {
+            return 0;
+        }
+        double mines = this.minesweeper.getMineQuantity() - this.revealedMines - this.frontierMines;
+        return Math.max(0, Math.min(1, mines / interior));
+    }
+
+    /**
+     * Descarta o componente dado, acrescentando seus quadrados às sementes a recalcular.
+     */
+    private void discard(int component, IntList seeds) {
+        if (component < 0) {
+            return;
+        }
+        int[] cells = this.componentCells.get(component);
+        for (int cell : cells) {
+            this.componentOf[cell] = -1;
+            seeds.add(cell);
+        }
+        this.componentCells.set(component, null);
+        this.freeIds.add(component);
+        this.frontierMines -= this.componentMines[component];
+        this.frontierCells -= cells.length;
+    }
+
+    /**
+     * Recalcula os componentes formados pelos números vizinhos dos quadrados dados.
+     */
+    private void rebuild(IntList seeds) {
+        IntList numbers = new IntList();
+        int[] scratch = new int[this.minesweeper.getTopology().getMaxDegree()];
+        for (int i = 0; i < seeds.size(); i++) {
+            int cell = seeds.get(i);
+            if (this.minesweeper.isRevealed(cell % this.width, cell / this.width)) {
+                continue;
+            }
+            int count = this.minesweeper.getTopology().neighbors(cell, scratch);
+            for (int j = 0; j < count; j++) {
+                int neighbor = scratch[j];
+                if (this.minesweeper.isRevealed(neighbor % this.width, neighbor / this.width)) {
+                    numbers.add(neighbor);
+                }
+            }
+        }
+
+        List<Constraint> constraints = new ArrayList<>();
+        for (int number : Frontier.sortedDistinct(numbers.toArray())) {
+            Constraint constraint = Frontier.constraintAt(this.minesweeper, number % this.width, number / this.width, scratch);
+            if (constraint != null) {
+                constraints.add(constraint);
+            }
+        }
+
+        double density = interiorProbability();
+        for (Component component : Frontier.group(constraints)) {
+            solve(component, density);
+        }
+    }
+
+    /**
+     * Enumera as soluções do componente e guarda as probabilidades de seus quadrados.
+     */
+    private void solve(Component component, double density) {
+        int size = component.size();
+        double[] weights = new double[size + 1];
+        double ratio = density <= 0 || density >= 1 ? 1 : density / (1 - density);
+        int expected = (int) Math.round(size * density);
+        for (int mines = 0; mines <= size; mines++) {
+            weights[mines] = Math.pow(ratio, mines - expected);
+        }
+
+        Enumeration enumeration = Enumeration.run(component, System.nanoTime() + COMPONENT_BUDGET_NANOS, weights, this.pool);
+        boolean solved = !enumeration.isAborted() && enumeration.getSolutions() > 0;
+
+        int id;
+        if (this.freeIds.size() > 0) {
+            id = this.freeIds.removeLast();
+            this.componentCells.set(id, component.cells);
+        } else {
+            id = this.componentCells.size();
+            this.componentCells.add(component.cells);
+            if (id == this.componentMines.length) {
+                this.componentMines = Arrays.copyOf(this.componentMines, id * 2);
+            }
+        }
+        double mines = 0;
+        for (int i = 0; i < size; i++) {
+            int cell = component.cells[i];
+            double probability = solved ? enumeration.getProbability(i) : density;
+            this.componentOf[cell] = id;
+            this.probability[cell] = (float) probability;
+            mines += probability;
+        }
+        this.componentMines[id] = mines;
+        this.frontierMines += mines;
+        this.frontierCells += size;
+    }
+
+    /**
+     * Retorna a quantidade de identificadores de componentes já usados, vivos ou livres.
+     */
+    int getComponentIdCount() {
+        return this.componentCells.size();
+    }
+
+    private char label(int position) {
+        return this.minesweeper.getCellLabel(position % this.width, position / this.width);
+    }
+}
@@ -0,0 +1,90 @@
+package alefelucas.minesweeper.solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+/**
+ * Resolvedor do campo minado por propagação de restrições. A partir dos números revelados,
+ * encontra os quadrados comprovadamente seguros e os que comprovadamente têm minas:
+ * <ol>
+ * <li>aplica as regras de um número e de subconjunto ({@link Frontier#propagate()});</li>
+ * <li>se nada for deduzido, divide a fronteira em componentes independentes e enumera todas
+ * as soluções de cada um; uma variável que é sempre (ou nunca) mina é deduzida.</li>
+ * </ol>
+ * A enumeração de componentes grandes é dividida entre os núcleos com fork/join e para ao
+ * esgotar o orçamento de tempo, devolvendo o que já foi deduzido.
+ *
+ * @author Álefe Lucas
+ */
+public class Solver {
+
+    /**
+     * Orçamento padrão de {@link #hint()}, curto o suficiente para manter a interface responsiva.
+     */
+    private static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Minesweeper minesweeper;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constrói o resolvedor do jogo dado, usando o {@link ForkJoinPool#commonPool()}.
+     */
+    public Solver(Minesweeper minesweeper) {
+        this(minesweeper, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constrói o resolvedor do jogo dado, enumerando componentes grandes no pool dado.
+     */
+    public Solver(Minesweeper minesweeper, ForkJoinPool pool) {
+        this.minesweeper = minesweeper;
+        this.pool = pool;
+    }
+
+    /**
+     * Retorna as posições comprovadamente seguras e com minas, com o orçamento padrão.
+     */
+    public Hint hint() {
+        return hint(DEFAULT_BUDGET_NANOS);
+    }
+
+    /**
+     * Retorna as posições comprovadamente seguras e com minas, parando a enumeração ao
+     * esgotar o orçamento dado, em nanossegundos.
+     */
+    public Hint hint(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Frontier frontier = Frontier.read(this.minesweeper);
+        frontier.propagate();
+        if (!frontier.hasDeductions()) {
+            for (Component component : frontier.components()) {
+                if (System.nanoTime() - deadline > 0) {
+                    break;
+                }
+                deduce(frontier, component, deadline);
+            }
+        }
+        return frontier.toHint();
+    }
+
+    /**
+     * Enumera as soluções do componente e marca na fronteira as variáveis cujo valor é o
+     * mesmo em todas elas.
+     */
+    private void deduce(Frontier frontier, Component component, long deadline) {
+        Enumeration enumeration = Enumeration.run(component, deadline, null, this.pool);
+        if (enumeration.isAborted() || enumeration.getSolutions() == 0) {
+            return;
+        }
+        long[] mineHits = enumeration.getMineHits();
+        for (int i = 0; i < mineHits.length; i++) {
+            if (mineHits[i] == 0) {
+                frontier.mark(component.cells[i], Frontier.SAFE);
+            } else if (mineHits[i] == enumeration.getSolutions()) {
+                frontier.mark(component.cells[i], Frontier.MINE);
+            }
+        }
+    }
+}
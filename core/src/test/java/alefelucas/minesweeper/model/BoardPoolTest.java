@@ -0,0 +1,96 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link BoardPool}.
+ *
+ * @author Álefe Lucas
+ */
+public class BoardPoolTest {
+
+    /**
+     * Executor que roda cada tarefa na hora e descarta as exceções, como a thread de um executor em
+     * segundo plano.
+     */
+    private static final Executor DIRECT = command -> {
+        try {
+            command.run();
+        } catch (RuntimeException ignored) {
+            // A thread do executor seguiria para a próxima tarefa.
+        }
+    };
+
+    @Test
+    public void take_returnsPreparedBoard() {
+        BoardPool pool = new BoardPool(10, 12, 20, 2, DIRECT);
+
+        Minesweeper minesweeper = pool.take();
+
+        assertTrue(minesweeper.isInitialized());
+        assertEquals(12, minesweeper.getWidth());
+    }
+
+    @Test
+    public void take_keepsGeneratingAfterGeneratorFails() {
+        BoardPool pool = new BoardPool(10, 10, 20, 1, DIRECT, new BoardPool.Generator() {
+            private boolean failed;
+
+            @Override
+            public Minesweeper generate(int height, int width, int mineQuantity) {
+                if (!this.failed) {
+                    this.failed = true;
+                    throw new IllegalStateException();
+                }
+                Minesweeper minesweeper = new Minesweeper(height, width, mineQuantity, 1);
+                minesweeper.prepare(width / 2, height / 2);
+                return minesweeper;
+            }
+        });
+
+        assertTrue(pool.take().isInitialized());
+    }
+
+    @Test
+    public void setOnBoardReady_reportsEachGeneratedBoard() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        BoardPool pool = new BoardPool(10, 10, 20, 2, tasks::add);
+        AtomicInteger ready = new AtomicInteger();
+        pool.setOnBoardReady(ready::incrementAndGet);
+        assertFalse(pool.isReady());
+
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        assertEquals(2, ready.get());
+        assertTrue(pool.isReady());
+    }
+
+    @Test
+    public void close_skipsQueuedGenerations() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        AtomicInteger generated = new AtomicInteger();
+        BoardPool pool = new BoardPool(10, 10, 20, 2, tasks::add, (height, width, mineQuantity) -> {
+            generated.incrementAndGet();
+            return new Minesweeper(height, width, mineQuantity, 1);
+        });
+
+        pool.close();
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        assertEquals(0, generated.get());
+        assertFalse(pool.isReady());
+        assertFalse(pool.take().isInitialized());
+        assertTrue(tasks.isEmpty());
+    }
+}
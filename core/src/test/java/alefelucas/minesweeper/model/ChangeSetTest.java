@@ -0,0 +1,35 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link ChangeSet}.
+ *
+ * @author Álefe Lucas
+ */
+public class ChangeSetTest {
+
+    @Test
+    public void of_mergesUnsortedPositionsIntoRanges() {
+        ChangeSet changes = ChangeSet.of(new int[]{7, 3, 4, 10, 5, 4, 9, 8});
+
+        assertEquals(2, changes.getRangeCount());
+        assertEquals(3, changes.getStart(0));
+        assertEquals(3, changes.getCount(0));
+        assertEquals(7, changes.getStart(1));
+        assertEquals(4, changes.getCount(1));
+    }
+
+    @Test
+    public void of_emptyBoardRevealIsSingleRange() {
+        Minesweeper minesweeper = new Minesweeper(100, 100, 0);
+
+        ChangeSet changes = ChangeSet.of(minesweeper.reveal(50, 50));
+
+        assertEquals(1, changes.getRangeCount());
+        assertEquals(0, changes.getStart(0));
+        assertEquals(100 * 100, changes.getCount(0));
+    }
+}
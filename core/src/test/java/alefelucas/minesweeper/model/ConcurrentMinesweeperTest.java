@@ -0,0 +1,100 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link ConcurrentMinesweeper}.
+ *
+ * @author Álefe Lucas
+ */
+public class ConcurrentMinesweeperTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void reveal_concurrentPlayersClaimEachCellOnce() throws InterruptedException {
+        int size = 400;
+        ConcurrentMinesweeper minesweeper = new ConcurrentMinesweeper(size, size, size * size / 20, 13);
+        AtomicIntegerArray claims = new AtomicIntegerArray(size * size);
+        for (int position : minesweeper.reveal(size / 2, size / 2)) {
+            claims.incrementAndGet(position);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] players = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            players[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int move = 0; move < 20_000; move++) {
+                    int x = random.nextInt(size);
+                    int y = random.nextInt(size);
+                    if (minesweeper.getCellLabel(x, y) != '*') {
+                        for (int position : minesweeper.reveal(x, y)) {
+                            claims.incrementAndGet(position);
+                        }
+                    }
+                }
+            });
+            players[t].start();
+        }
+        start.countDown();
+        for (Thread player : players) {
+            player.join();
+        }
+
+        int safe = 0;
+        for (int position = 0; position < size * size; position++) {
+            int x = position % size;
+            int y = position / size;
+            assertEquals(minesweeper.isRevealed(x, y) ? 1 : 0, claims.get(position));
+            if (minesweeper.isRevealed(x, y) && minesweeper.getCellLabel(x, y) != '*') {
+                safe++;
+            }
+        }
+        assertEquals(safe, minesweeper.getRevealedCellsQuantity());
+        boolean complete = safe == size * size - minesweeper.getMineQuantity();
+        assertEquals(complete ? GameStatus.WON : GameStatus.PLAYING, minesweeper.getStatus());
+    }
+
+    @Test
+    public void reveal_generatesBoardOnceAcrossThreads() throws InterruptedException {
+        ConcurrentMinesweeper minesweeper = new ConcurrentMinesweeper(50, 50, 400, 99);
+        Minesweeper reference = new Minesweeper(50, 50, 400, 99);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] players = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            players[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                minesweeper.reveal(25, 25);
+            });
+            players[t].start();
+        }
+        start.countDown();
+        for (Thread player : players) {
+            player.join();
+        }
+
+        reference.reveal(25, 25);
+        for (int y = 0; y < 50; y++) {
+            for (int x = 0; x < 50; x++) {
+                assertEquals(reference.getCellLabel(x, y), minesweeper.getCellLabel(x, y));
+                assertEquals(reference.isRevealed(x, y), minesweeper.isRevealed(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static alefelucas.minesweeper.model.GameStatus.PLAYING;
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais da lógica do {@link EndlessMinesweeper}.
+ *
+ * @author Álefe Lucas
+ */
+public class EndlessMinesweeperTest {
+
+    @Test
+    public void reveal_capsSpreadAndContinuesOnDemand() {
+        EndlessMinesweeper minesweeper = new EndlessMinesweeper(0, 1, 8);
+
+        long[] revealed = minesweeper.reveal(0, 0);
+
+        assertEquals(EndlessMinesweeper.SPREAD_BUDGET, revealed.length);
+        assertTrue(minesweeper.hasPendingSpread());
+        long[] continued = minesweeper.continueSpread();
+        assertEquals(EndlessMinesweeper.SPREAD_BUDGET, continued.length);
+        assertEquals(2L * EndlessMinesweeper.SPREAD_BUDGET, minesweeper.getRevealedCellsQuantity());
+        Set<Long> unique = new HashSet<>();
+        for (long cell : revealed) {
+            unique.add(cell);
+        }
+        for (long cell : continued) {
+            assertTrue(unique.add(cell));
+        }
+        assertEquals(PLAYING, minesweeper.getStatus());
+        assertTrue(minesweeper.getMaterializedChunks() <= 8);
+    }
+
+    @Test
+    public void evictedChunks_restoreLabelsAndRevealedCells() {
+        EndlessMinesweeper minesweeper = new EndlessMinesweeper(0.15, 42, 4);
+        long[] revealed = minesweeper.reveal(5, 5);
+        char[] labels = new char[revealed.length];
+        for (int i = 0; i < revealed.length; i++) {
+            labels[i] = minesweeper.getCellLabel(EndlessMinesweeper.x(revealed[i]), EndlessMinesweeper.y(revealed[i]));
+        }
+
+        for (int i = 0; i < 64; i++) {
+            minesweeper.getCellLabel(10_000 + i * EndlessMinesweeper.CHUNK_SIZE, -10_000);
+        }
+
+        assertEquals(4, minesweeper.getMaterializedChunks());
+        assertTrue(minesweeper.getCompactedChunks() > 0);
+        for (int i = 0; i < revealed.length; i++) {
+            int x = EndlessMinesweeper.x(revealed[i]);
+            int y = EndlessMinesweeper.y(revealed[i]);
+            assertTrue(minesweeper.isRevealed(x, y));
+            assertEquals(labels[i], minesweeper.getCellLabel(x, y));
+        }
+    }
+}
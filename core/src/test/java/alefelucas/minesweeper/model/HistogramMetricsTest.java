@@ -0,0 +1,91 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link HistogramMetrics} e das medições do {@link Minesweeper}.
+ *
+ * @author Álefe Lucas
+ */
+public class HistogramMetricsTest {
+
+    @Test
+    public void minesweeper_reportsInitRevealsAndOutcome() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        Minesweeper minesweeper = new Minesweeper(16, 16, 40, 5L);
+        minesweeper.setMetricsListener(metrics);
+
+        int reveals = 0;
+        int largest = 0;
+        for (int position = 0; position < 256 && minesweeper.getStatus() == GameStatus.PLAYING; position++) {
+            if (!minesweeper.isRevealed(position % 16, position / 16)) {
+                largest = Math.max(largest, minesweeper.reveal(position % 16, position / 16).length);
+                reveals++;
+            }
+        }
+
+        HistogramMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getInitNanos().getCount());
+        assertEquals(reveals, snapshot.getRevealNanos().getCount());
+        assertEquals(reveals, snapshot.getRevealSize().getCount());
+        assertEquals(largest, snapshot.getRevealSize().getMax());
+        assertTrue(snapshot.getQueuePeak().getMax() <= largest);
+        assertEquals(1, snapshot.getWon() + snapshot.getLost());
+        assertEquals(minesweeper.getStatus() == GameStatus.LOST ? 1 : 0, snapshot.getLost());
+    }
+
+    @Test
+    public void minesweeper_reportsGameOverOnceAcrossUndoAndRedo() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        Minesweeper minesweeper = new Minesweeper(9, 9, 10, 2L);
+        minesweeper.enableUndo(1000);
+        minesweeper.setMetricsListener(metrics);
+        minesweeper.reveal(4, 4);
+        int mine = 0;
+        while (minesweeper.getCellLabel(mine % 9, mine / 9) != '*') {
+            mine++;
+        }
+
+        minesweeper.reveal(mine % 9, mine / 9);
+        minesweeper.undo();
+        minesweeper.redo();
+        minesweeper.undo();
+        minesweeper.reveal(mine % 9, mine / 9);
+
+        assertEquals(GameStatus.LOST, minesweeper.getStatus());
+        assertEquals(1, metrics.snapshot().getLost());
+        assertEquals(0, metrics.snapshot().getWon());
+    }
+
+    @Test
+    public void minesweeper_reportsReanchorMoves() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        Minesweeper minesweeper = new Minesweeper(30, 30, 400, 9L);
+        minesweeper.setMetricsListener(metrics);
+        minesweeper.prepare(15, 15);
+        minesweeper.reveal(2, 2);
+
+        HistogramMetrics.Distribution moves = metrics.snapshot().getReanchorMoves();
+        assertEquals(1, moves.getCount());
+        assertTrue(moves.getMax() > 0 && moves.getMax() <= 9);
+    }
+
+    @Test
+    public void distribution_percentilesAreBucketUpperBounds() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        for (int size = 1; size <= 100; size++) {
+            metrics.onReveal(size, 1, 0);
+        }
+
+        HistogramMetrics.Distribution sizes = metrics.snapshot().getRevealSize();
+        assertEquals(100, sizes.getCount());
+        assertEquals(50.5, sizes.getMean(), 1e-9);
+        assertEquals(63, sizes.getPercentile(50));
+        assertEquals(100, sizes.getPercentile(99));
+        assertEquals(1, sizes.getBuckets()[1]);
+        assertEquals(2, sizes.getBuckets()[2]);
+        assertTrue(metrics.snapshot().toString().contains("reveal.size count=100"));
+    }
+}
@@ -0,0 +1,71 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link LabelKernel}, comparando o cálculo em bloco com o cálculo quadrado a quadrado.
+ *
+ * @author Álefe Lucas
+ */
+public class LabelKernelTest {
+
+    @Test
+    public void label_matchesScalarLabels() {
+        Random random = new Random(11);
+        int[] widths = {1, 2, 63, 64, 65, 127, 128, 200};
+        double[] densities = {0.0, 0.1, 0.5, 1.0};
+        for (int width : widths) {
+            for (double density : densities) {
+                int height = 1 + random.nextInt(40);
+                long[] mines = LabelKernel.newBoard(width, height);
+                long[] neutralizers = LabelKernel.newBoard(width, height);
+                for (int position = 0; position < width * height; position++) {
+                    double draw = random.nextDouble();
+                    if (draw < density) {
+                        LabelKernel.set(mines, width, position);
+                    } else if (draw < density + 0.05) {
+                        LabelKernel.set(neutralizers, width, position);
+                    }
+                }
+
+                byte[] expected = new byte[width * height];
+                byte[] actual = new byte[width * height];
+                LabelKernel.labelScalar(mines, neutralizers, width, height, expected);
+                LabelKernel.label(mines, neutralizers, width, height, actual);
+                assertArrayEquals(width + "x" + height + " @ " + density, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void init_matchesScalarLabelsOfTheSameBoard() {
+        for (long seed = 0; seed < 20; seed++) {
+            Minesweeper minesweeper = new Minesweeper(37, 101, 700, seed);
+            minesweeper.init(50, 18);
+            int width = minesweeper.getWidth();
+            int height = minesweeper.getHeight();
+
+            long[] mines = LabelKernel.newBoard(width, height);
+            long[] neutralizers = LabelKernel.newBoard(width, height);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    char label = minesweeper.getCellLabel(x, y);
+                    if (label == '*') {
+                        LabelKernel.set(mines, width, y * width + x);
+                    } else if (label == 'N') {
+                        LabelKernel.set(neutralizers, width, y * width + x);
+                    }
+                }
+            }
+            byte[] expected = new byte[width * height];
+            LabelKernel.labelScalar(mines, neutralizers, width, height, expected);
+            byte[] actual = new byte[width * height];
+            minesweeper.readRegion(0, 0, width, height, actual, 0);
+            assertArrayEquals(expected, actual);
+        }
+    }
+}
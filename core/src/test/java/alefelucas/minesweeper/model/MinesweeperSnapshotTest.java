@@ -0,0 +1,127 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link MinesweeperSnapshot}.
+ *
+ * @author Álefe Lucas
+ */
+public class MinesweeperSnapshotTest {
+
+    @Test
+    public void fromBytes_restoresRunningGame() {
+        Minesweeper original = new Minesweeper(60, 50, 400, 5);
+        original.reveal(25, 30);
+
+        byte[] snapshot = MinesweeperSnapshot.toBytes(original);
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(snapshot);
+
+        assertEquals(MinesweeperSnapshot.size(original), snapshot.length);
+        assertSameBoard(original, restored);
+        assertArrayEquals(original.reveal(0, 0), restored.reveal(0, 0));
+        assertEquals(original.getStatus(), restored.getStatus());
+    }
+
+    @Test
+    public void fromBytes_keepsPreparedAnchor() {
+        Minesweeper original = new Minesweeper(20, 20, 60, 9);
+        original.prepare(10, 10);
+
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(MinesweeperSnapshot.toBytes(original));
+
+        assertArrayEquals(original.reveal(2, 3), restored.reveal(2, 3));
+        assertSameBoard(original, restored);
+    }
+
+    @Test
+    public void fromBytes_restoresBoardNotYetGenerated() {
+        Minesweeper original = new Minesweeper(16, 10, 12, 3);
+
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(MinesweeperSnapshot.toBytes(original));
+
+        assertArrayEquals(original.reveal(4, 4), restored.reveal(4, 4));
+        assertSameBoard(original, restored);
+    }
+
+    @Test
+    public void fromBytes_keepsFlags() {
+        Minesweeper original = new Minesweeper(20, 20, 50, 2);
+        original.reveal(10, 10);
+        int size = MinesweeperSnapshot.size(original);
+        for (int position = 0; position < 400; position += 7) {
+            original.setFlagged(position % 20, position / 20, true);
+        }
+
+        byte[] snapshot = MinesweeperSnapshot.toBytes(original);
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(snapshot);
+
+        assertEquals(size + 50, snapshot.length);
+        assertEquals(original.getFlaggedCellsQuantity(), restored.getFlaggedCellsQuantity());
+        for (int position = 0; position < 400; position++) {
+            assertEquals(original.isFlagged(position % 20, position / 20), restored.isFlagged(position % 20, position / 20));
+        }
+        assertSameBoard(original, restored);
+    }
+
+    @Test
+    public void fromBytes_readsVersionOneAsSquare() {
+        Minesweeper original = new Minesweeper(30, 20, 80, 12);
+        original.reveal(10, 15);
+        // A versão 1 não tem o byte da vizinhança, o último do cabeçalho.
+        byte[] current = MinesweeperSnapshot.toBytes(original);
+        byte[] versionOne = new byte[current.length - 1];
+        System.arraycopy(current, 0, versionOne, 0, 35);
+        System.arraycopy(current, 36, versionOne, 35, current.length - 36);
+        versionOne[4] = 1;
+
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(versionOne);
+
+        assertEquals(Topology.Kind.SQUARE, restored.getTopology().getKind());
+        assertSameBoard(original, restored);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromBytes_rejectsOtherVersions() {
+        byte[] snapshot = MinesweeperSnapshot.toBytes(new Minesweeper(10, 10, 10));
+        snapshot[4] = MinesweeperSnapshot.VERSION + 1;
+
+        MinesweeperSnapshot.fromBytes(snapshot);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromBytes_rejectsTruncatedSnapshot() {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 10);
+        minesweeper.reveal(5, 5);
+        byte[] snapshot = MinesweeperSnapshot.toBytes(minesweeper);
+
+        MinesweeperSnapshot.fromBytes(Arrays.copyOf(snapshot, snapshot.length - 1));
+    }
+
+    @Test
+    public void restoredGame_revealingRevealedCellReturnsNothing() {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 10, 3L);
+        minesweeper.reveal(5, 5);
+
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(MinesweeperSnapshot.toBytes(minesweeper));
+
+        assertEquals(0, restored.reveal(5, 5).length);
+        assertSameBoard(minesweeper, restored);
+    }
+
+    private static void assertSameBoard(Minesweeper expected, Minesweeper actual) {
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        byte[] expectedCells = new byte[width * height];
+        byte[] actualCells = new byte[width * height];
+        expected.readRegion(0, 0, width, height, expectedCells, 0);
+        actual.readRegion(0, 0, width, height, actualCells, 0);
+        assertArrayEquals(expectedCells, actualCells);
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getMineQuantity(), actual.getMineQuantity());
+    }
+}
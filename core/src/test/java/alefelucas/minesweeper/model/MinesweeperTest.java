@@ -0,0 +1,465 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static alefelucas.minesweeper.model.GameStatus.WON;
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais da lógica do {@link Minesweeper}.
+ *
+ * @author Álefe Lucas
+ */
+public class MinesweeperTest {
+
+    @Test
+    public void reveal_floodFillsLargeEmptyBoardWithoutRecursion() {
+        Minesweeper minesweeper = new Minesweeper(1000, 1000, 0);
+
+        int[] revealed = minesweeper.reveal(500, 500);
+
+        assertEquals(1000 * 1000, revealed.length);
+        assertEquals(WON, minesweeper.getStatus());
+    }
+
+    @Test
+    public void reveal_returnsEachPositionOnce() {
+        Minesweeper minesweeper = new Minesweeper(30, 30, 60);
+
+        int[] revealed = minesweeper.reveal(15, 15);
+
+        Set<Integer> unique = new HashSet<>();
+        for (int position : revealed) {
+            assertTrue(unique.add(position));
+            assertTrue(minesweeper.isRevealed(position % 30, position / 30));
+        }
+        assertTrue(unique.contains(15 * 30 + 15));
+    }
+
+    @Test
+    public void getCellLabel_matchesNeighboringMines() {
+        Minesweeper minesweeper = new Minesweeper(40, 25, 200);
+        minesweeper.reveal(3, 3);
+
+        assertLabelsMatchMines(minesweeper);
+    }
+
+    @Test
+    public void prepare_movesSafeZoneToFirstTap() {
+        for (long seed = 0; seed < 50; seed++) {
+            Minesweeper minesweeper = new Minesweeper(16, 10, 60, seed);
+            minesweeper.prepare(5, 8);
+
+            minesweeper.reveal(0, 0);
+
+            assertEquals(' ', minesweeper.getCellLabel(0, 0));
+            assertLabelsMatchMines(minesweeper);
+            int mines = 0;
+            for (int position = 0; position < 160; position++) {
+                if (minesweeper.getCellLabel(position % 10, position / 10) == '*') {
+                    mines++;
+                }
+            }
+            assertEquals(60, mines);
+        }
+    }
+
+    @Test
+    public void prepare_keepsFirstTapSafeAtFullDensity() {
+        for (long seed = 0; seed < 20; seed++) {
+            for (int[] tap : new int[][]{{2, 2}, {0, 0}, {9, 4}, {5, 5}}) {
+                Minesweeper minesweeper = new Minesweeper(10, 10, 100, seed);
+                minesweeper.prepare(5, 5);
+
+                minesweeper.reveal(tap[0], tap[1]);
+
+                assertNotEquals(GameStatus.LOST, minesweeper.getStatus());
+                for (int y = Math.max(0, tap[1] - 1); y <= Math.min(9, tap[1] + 1); y++) {
+                    for (int x = Math.max(0, tap[0] - 1); x <= Math.min(9, tap[0] + 1); x++) {
+                        assertNotEquals('*', minesweeper.getCellLabel(x, y));
+                    }
+                }
+                assertLabelsMatchMines(minesweeper);
+            }
+        }
+    }
+
+    private static void assertLabelsMatchMines(Minesweeper minesweeper) {
+        int height = minesweeper.getHeight();
+        int width = minesweeper.getWidth();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                char label = minesweeper.getCellLabel(x, y);
+                if (label == '*' || label == 'N') {
+                    continue;
+                }
+                int mines = 0;
+                for (int j = Math.max(0, y - 1); j <= Math.min(height - 1, y + 1); j++) {
+                    for (int i = Math.max(0, x - 1); i <= Math.min(width - 1, x + 1); i++) {
+                        if (minesweeper.getCellLabel(i, j) == '*') {
+                            mines++;
+                        }
+                    }
+                }
+                assertEquals(mines == 0 ? ' ' : (char) ('0' + mines), label);
+            }
+        }
+    }
+
+    @Test
+    public void init_sameSeedBuildsSameBoard() {
+        Minesweeper first = new Minesweeper(20, 20, 80, 42L);
+        Minesweeper second = new Minesweeper(20, 20, 80, 42L);
+        first.reveal(5, 5);
+        second.reveal(5, 5);
+
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 20; x++) {
+                assertEquals(first.getCellLabel(x, y), second.getCellLabel(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void init_fillsEveryCellOutsideSafeZoneAtFullDensity() {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 100);
+
+        minesweeper.reveal(0, 0);
+
+        assertEquals(WON, minesweeper.getStatus());
+        int mines = 0;
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                if (minesweeper.getCellLabel(x, y) == '*') {
+                    mines++;
+                }
+            }
+        }
+        assertEquals(100 - 4, mines);
+    }
+
+    @Test
+    public void readRegion_matchesPerCellAccessors() {
+        Minesweeper minesweeper = new Minesweeper(40, 30, 150, 11);
+        minesweeper.reveal(12, 20);
+        byte[] region = new byte[2 + 10 * 7];
+
+        minesweeper.readRegion(5, 15, 10, 7, region, 2);
+
+        for (int j = 0; j < 7; j++) {
+            for (int i = 0; i < 10; i++) {
+                byte cell = region[2 + j * 10 + i];
+                assertEquals(minesweeper.getCellLabel(5 + i, 15 + j), Minesweeper.toLabel(cell));
+                assertEquals(minesweeper.isRevealed(5 + i, 15 + j), (cell & Minesweeper.REGION_REVEALED) != 0);
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readRegion_rejectsRegionOutsideBoard() {
+        new Minesweeper(10, 10, 10).readRegion(5, 5, 6, 1, new byte[6], 0);
+    }
+
+    @Test
+    public void undo_hidesRevealedCellsAndRedoRestoresThem() {
+        Minesweeper minesweeper = new Minesweeper(30, 30, 60, 21);
+        minesweeper.enableUndo(10_000);
+        minesweeper.reveal(15, 15);
+        byte[] afterFirst = new byte[30 * 30];
+        minesweeper.readRegion(0, 0, 30, 30, afterFirst, 0);
+        int position = 0;
+        while (minesweeper.isRevealed(position % 30, position / 30) || minesweeper.getCellLabel(position % 30, position / 30) == '*') {
+            position++;
+        }
+        int[] second = minesweeper.reveal(position % 30, position / 30);
+
+        int[] undone = minesweeper.undo();
+
+        assertArrayEquals(second, undone);
+        byte[] cells = new byte[30 * 30];
+        minesweeper.readRegion(0, 0, 30, 30, cells, 0);
+        assertArrayEquals(afterFirst, cells);
+        assertTrue(minesweeper.canRedo());
+        assertArrayEquals(second, minesweeper.redo());
+        assertFalse(minesweeper.canRedo());
+    }
+
+    @Test
+    public void undo_growsHistoryWithMovesUpToCapacity() {
+        for (int capacity : new int[]{200, 1 << 18}) {
+            Minesweeper minesweeper = new Minesweeper(30, 30, 200, 3);
+            Minesweeper plain = new Minesweeper(30, 30, 200, 3);
+            minesweeper.enableUndo(capacity);
+            assertTrue(minesweeper.footprint() - plain.footprint() < 4 * 100);
+
+            minesweeper.reveal(15, 15);
+            plain.reveal(15, 15);
+            List<int[]> moves = new ArrayList<>();
+            for (int position = 0; position < 900 && minesweeper.getStatus() == GameStatus.PLAYING; position++) {
+                char label = minesweeper.getCellLabel(position % 30, position / 30);
+                if (!minesweeper.isRevealed(position % 30, position / 30) && label >= '1' && label <= '8') {
+                    moves.add(minesweeper.reveal(position % 30, position / 30));
+                    plain.reveal(position % 30, position / 30);
+                }
+            }
+
+            int undone = 0;
+            while (minesweeper.canUndo() && undone < moves.size()) {
+                assertArrayEquals(moves.get(moves.size() - 1 - undone), minesweeper.undo());
+                undone++;
+            }
+            assertTrue(moves.size() > 40);
+            assertEquals(capacity == 200 ? 40 : moves.size(), undone);
+            // Cada jogada de um quadrado ocupa cinco inteiros no histórico e dois na pilha de refazer,
+            // com folga de duas vezes pelo crescimento em dobro.
+            long history = minesweeper.footprint() - plain.footprint();
+            assertTrue(history <= 4L * (Math.min(capacity, 16 * moves.size()) + 4 * moves.size()));
+            assertTrue(capacity == 200 || history < capacity);
+        }
+    }
+
+    @Test
+    public void undo_keepsOnlyMovesThatFitTheCapacity() {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 30, 1);
+        minesweeper.enableUndo(15);
+        minesweeper.reveal(5, 5);
+        int moves = 0;
+        for (int position = 0; position < 100; position++) {
+            char label = minesweeper.getCellLabel(position % 10, position / 10);
+            if (!minesweeper.isRevealed(position % 10, position / 10) && label >= '1' && label <= '8') {
+                minesweeper.reveal(position % 10, position / 10);
+                moves++;
+            }
+        }
+
+        int undone = 0;
+        while (minesweeper.canUndo()) {
+            minesweeper.undo();
+            undone++;
+        }
+
+        assertTrue(moves > 3);
+        assertEquals(3, undone);
+    }
+
+    @Test
+    public void revealAll_matchesSequentialRevealsInOneMove() {
+        Minesweeper sequential = new Minesweeper(30, 30, 120, 8);
+        Minesweeper batched = new Minesweeper(30, 30, 120, 8);
+        sequential.reveal(15, 15);
+        batched.reveal(15, 15);
+        int[] positions = new int[900];
+        int count = 0;
+        for (int position = 0; position < 900; position++) {
+            if (!batched.isRevealed(position % 30, position / 30) && batched.getCellLabel(position % 30, position / 30) != '*') {
+                positions[count++] = position;
+            }
+        }
+        positions = Arrays.copyOf(positions, count);
+        Set<Integer> expected = new HashSet<>();
+        for (int position : positions) {
+            for (int revealed : sequential.reveal(position % 30, position / 30)) {
+                expected.add(revealed);
+            }
+        }
+        int[] reveals = new int[2];
+        batched.setMetricsListener(new MetricsListener() {
+            @Override
+            public void onInit(int cells, int mines, long nanos) {
+            }
+
+            @Override
+            public void onReanchor(int moved) {
+            }
+
+            @Override
+            public void onReveal(int revealed, int queuePeak, long nanos) {
+                reveals[0]++;
+            }
+
+            @Override
+            public void onGameOver(GameStatus status) {
+                reveals[1]++;
+            }
+        });
+
+        int[] revealed = batched.revealAll(positions);
+
+        Set<Integer> unique = new HashSet<>();
+        for (int position : revealed) {
+            assertTrue(unique.add(position));
+        }
+        assertEquals(expected, unique);
+        assertEquals(WON, batched.getStatus());
+        assertEquals(sequential.getStatus(), batched.getStatus());
+        assertEquals(1, reveals[0]);
+        assertEquals(1, reveals[1]);
+        byte[] expectedCells = new byte[900];
+        byte[] actualCells = new byte[900];
+        sequential.readRegion(0, 0, 30, 30, expectedCells, 0);
+        batched.readRegion(0, 0, 30, 30, actualCells, 0);
+        assertArrayEquals(expectedCells, actualCells);
+    }
+
+    @Test
+    public void chord_revealsNeighborsOnlyWhenFlagsMatchNumber() {
+        for (long seed = 0; seed < 20; seed++) {
+            Minesweeper minesweeper = new Minesweeper(20, 20, 60, seed);
+            minesweeper.reveal(10, 10);
+            int number = findNumberWithHiddenNeighbors(minesweeper, false);
+            if (number < 0) {
+                continue;
+            }
+            int x = number % 20;
+            int y = number / 20;
+
+            assertEquals(0, minesweeper.chord(x, y).length);
+            for (int j = Math.max(0, y - 1); j <= Math.min(19, y + 1); j++) {
+                for (int i = Math.max(0, x - 1); i <= Math.min(19, x + 1); i++) {
+                    if (minesweeper.getCellLabel(i, j) == '*') {
+                        assertTrue(minesweeper.setFlagged(i, j, true));
+                    }
+                }
+            }
+            int[] revealed = minesweeper.chord(x, y);
+
+            assertTrue(revealed.length > 0);
+            assertNotEquals(GameStatus.LOST, minesweeper.getStatus());
+            for (int j = Math.max(0, y - 1); j <= Math.min(19, y + 1); j++) {
+                for (int i = Math.max(0, x - 1); i <= Math.min(19, x + 1); i++) {
+                    assertTrue(minesweeper.isRevealed(i, j) != minesweeper.isFlagged(i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void chord_withWrongFlagsLosesTheGame() {
+        for (long seed = 0; seed < 20; seed++) {
+            Minesweeper minesweeper = new Minesweeper(20, 20, 60, seed);
+            minesweeper.reveal(10, 10);
+            int number = findNumberWithHiddenNeighbors(minesweeper, true);
+            if (number < 0) {
+                continue;
+            }
+            int x = number % 20;
+            int y = number / 20;
+            int flags = minesweeper.getCellLabel(x, y) - '0';
+            for (int j = Math.max(0, y - 1); j <= Math.min(19, y + 1) && flags > 0; j++) {
+                for (int i = Math.max(0, x - 1); i <= Math.min(19, x + 1) && flags > 0; i++) {
+                    if (!minesweeper.isRevealed(i, j) && minesweeper.getCellLabel(i, j) != '*') {
+                        minesweeper.setFlagged(i, j, true);
+                        flags--;
+                    }
+                }
+            }
+
+            minesweeper.chord(x, y);
+
+            assertEquals(GameStatus.LOST, minesweeper.getStatus());
+        }
+    }
+
+    /**
+     * Procura um número revelado com algum vizinho escondido. Com {@code wrongFlags}, o número
+     * precisa ter vizinhos escondidos sem mina suficientes para ser satisfeito só por marcas erradas.
+     */
+    private static int findNumberWithHiddenNeighbors(Minesweeper minesweeper, boolean wrongFlags) {
+        int width = minesweeper.getWidth();
+        int height = minesweeper.getHeight();
+        for (int position = 0; position < width * height; position++) {
+            int x = position % width;
+            int y = position / width;
+            char label = minesweeper.getCellLabel(x, y);
+            if (!minesweeper.isRevealed(x, y) || label < '1' || label > '8') {
+                continue;
+            }
+            int hiddenSafe = 0;
+            int hiddenMines = 0;
+            for (int j = Math.max(0, y - 1); j <= Math.min(height - 1, y + 1); j++) {
+                for (int i = Math.max(0, x - 1); i <= Math.min(width - 1, x + 1); i++) {
+                    if (!minesweeper.isRevealed(i, j)) {
+                        if (minesweeper.getCellLabel(i, j) == '*') {
+                            hiddenMines++;
+                        } else {
+                            hiddenSafe++;
+                        }
+                    }
+                }
+            }
+            if (wrongFlags ? hiddenSafe >= label - '0' && hiddenMines > 0 : hiddenSafe > 0 && hiddenMines == label - '0') {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void setFlagged_onlyMarksHiddenCellsAfterFirstTouch() {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 10, 4);
+        minesweeper.prepare(5, 5);
+
+        assertFalse(minesweeper.setFlagged(0, 0, true));
+        minesweeper.reveal(5, 5);
+        assertFalse(minesweeper.setFlagged(5, 5, true));
+        int hidden = 0;
+        while (minesweeper.isRevealed(hidden % 10, hidden / 10)) {
+            hidden++;
+        }
+        assertTrue(minesweeper.toggleFlag(hidden % 10, hidden / 10));
+        assertFalse(minesweeper.setFlagged(hidden % 10, hidden / 10, true));
+        assertEquals(1, minesweeper.getFlaggedCellsQuantity());
+        assertEquals(0, minesweeper.reveal(hidden % 10, hidden / 10).length);
+        assertFalse(minesweeper.isRevealed(hidden % 10, hidden / 10));
+        assertTrue(minesweeper.toggleFlag(hidden % 10, hidden / 10));
+        assertEquals(0, minesweeper.getFlaggedCellsQuantity());
+    }
+
+    @Test
+    public void redo_replaysBatchWithoutFlaggedCells() {
+        Minesweeper minesweeper = new Minesweeper(40, 40, 100, 6);
+        minesweeper.enableUndo(10_000);
+        minesweeper.reveal(0, 0);
+        int empty = -1;
+        int number = -1;
+        for (int position = 0; position < 1600; position++) {
+            char label = minesweeper.getCellLabel(position % 40, position / 40);
+            if (minesweeper.isRevealed(position % 40, position / 40)) {
+                continue;
+            }
+            if (label == ' ' && empty < 0) {
+                empty = position;
+            } else if (label >= '1' && label <= '8') {
+                number = position;
+            }
+        }
+        int[] batch = {empty, number};
+        int[] revealed = minesweeper.revealAll(batch);
+        int flagged = -1;
+        for (int position : revealed) {
+            if (minesweeper.getCellLabel(position % 40, position / 40) == ' ' && position != empty) {
+                flagged = position;
+            }
+        }
+        assertTrue(flagged >= 0);
+
+        assertArrayEquals(revealed, minesweeper.undo());
+        assertTrue(minesweeper.setFlagged(flagged % 40, flagged / 40, true));
+        int[] redone = minesweeper.redo();
+
+        assertFalse(minesweeper.isRevealed(flagged % 40, flagged / 40));
+        Set<Integer> redoneSet = new HashSet<>();
+        for (int position : redone) {
+            redoneSet.add(position);
+        }
+        assertTrue(redoneSet.contains(empty));
+        assertTrue(redoneSet.contains(number));
+        assertFalse(redoneSet.contains(flagged));
+    }
+}
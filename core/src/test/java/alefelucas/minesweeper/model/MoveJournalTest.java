@@ -0,0 +1,143 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link MoveJournal}.
+ *
+ * @author Álefe Lucas
+ */
+public class MoveJournalTest {
+
+    @Test
+    public void replay_rebuildsRecordedGame() throws IOException {
+        Minesweeper original = new Minesweeper(30, 40, 120, 17);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(original, Channels.newChannel(bytes));
+        Random random = new Random(1);
+        while (original.getStatus() == GameStatus.PLAYING) {
+            original.reveal(random.nextInt(40), random.nextInt(30));
+        }
+        journal.close();
+
+        Minesweeper replayed = MoveJournal.replay(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertArrayEquals(MinesweeperSnapshot.toBytes(original), MinesweeperSnapshot.toBytes(replayed));
+    }
+
+    @Test
+    public void replay_stopsAtGivenMove() throws IOException {
+        Minesweeper original = new Minesweeper(20, 20, 40, 3);
+        original.prepare(10, 10);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(original, Channels.newChannel(bytes));
+        original.reveal(2, 2);
+        byte[] afterFirstMove = MinesweeperSnapshot.toBytes(original);
+        original.reveal(17, 5);
+        journal.flush();
+
+        Minesweeper replayed = MoveJournal.replay(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), 1);
+
+        assertEquals(2, journal.getMoveCount());
+        assertArrayEquals(afterFirstMove, MinesweeperSnapshot.toBytes(replayed));
+    }
+
+    @Test
+    public void replay_reproducesUndoAndRedo() throws IOException {
+        Minesweeper original = new Minesweeper(20, 20, 50, 8);
+        original.enableUndo(1000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(original, Channels.newChannel(bytes));
+        original.reveal(10, 10);
+        original.reveal(0, 19);
+        original.undo();
+        original.undo();
+        original.redo();
+        journal.close();
+
+        Minesweeper replayed = MoveJournal.replay(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertArrayEquals(MinesweeperSnapshot.toBytes(original), MinesweeperSnapshot.toBytes(replayed));
+        assertTrue(replayed.canUndo());
+        assertTrue(replayed.canRedo());
+    }
+
+    @Test
+    public void replay_keepsTopology() throws IOException {
+        Minesweeper original = new Minesweeper(Topology.torus(20, 20), 50, 4);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(original, Channels.newChannel(bytes));
+        original.reveal(0, 0);
+        original.reveal(19, 7);
+        journal.close();
+
+        Minesweeper replayed = MoveJournal.replay(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(Topology.Kind.TORUS, replayed.getTopology().getKind());
+        assertArrayEquals(MinesweeperSnapshot.toBytes(original), MinesweeperSnapshot.toBytes(replayed));
+    }
+
+    @Test
+    public void replay_readsVersionOneJournal() throws IOException {
+        Minesweeper original = new Minesweeper(20, 20, 40, 6);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(original, Channels.newChannel(bytes));
+        original.reveal(4, 4);
+        original.reveal(15, 12);
+        journal.close();
+        // A versão 1 não tem o byte da vizinhança, o último do cabeçalho.
+        byte[] current = bytes.toByteArray();
+        byte[] versionOne = new byte[current.length - 1];
+        System.arraycopy(current, 0, versionOne, 0, 29);
+        System.arraycopy(current, 30, versionOne, 29, current.length - 30);
+        versionOne[4] = 1;
+
+        Minesweeper replayed = MoveJournal.replay(Channels.newChannel(new ByteArrayInputStream(versionOne)));
+
+        assertEquals(Topology.Kind.SQUARE, replayed.getTopology().getKind());
+        assertArrayEquals(MinesweeperSnapshot.toBytes(original), MinesweeperSnapshot.toBytes(replayed));
+    }
+
+    @Test
+    public void replay_reproducesFlagsChordsAndBatches() throws IOException {
+        Minesweeper original = new Minesweeper(30, 30, 100, 12);
+        original.enableUndo(10_000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveJournal journal = new MoveJournal(original, Channels.newChannel(bytes));
+        original.reveal(15, 15);
+        for (int position = 0; position < 900; position++) {
+            if (!original.isRevealed(position % 30, position / 30) && original.getCellLabel(position % 30, position / 30) == '*') {
+                original.setFlagged(position % 30, position / 30, true);
+            }
+        }
+        for (int position = 0; position < 900; position++) {
+            original.chord(position % 30, position / 30);
+        }
+        original.setFlagged(0, 0, false);
+        original.revealAll(new int[]{899, 0, 450, 899});
+        original.undo();
+        original.redo();
+        journal.close();
+
+        Minesweeper replayed = MoveJournal.replay(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(original.getFlaggedCellsQuantity(), replayed.getFlaggedCellsQuantity());
+        assertArrayEquals(MinesweeperSnapshot.toBytes(original), MinesweeperSnapshot.toBytes(replayed));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void constructor_rejectsStartedGame() throws IOException {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 10);
+        minesweeper.reveal(5, 5);
+
+        new MoveJournal(minesweeper, Channels.newChannel(new ByteArrayOutputStream()));
+    }
+}
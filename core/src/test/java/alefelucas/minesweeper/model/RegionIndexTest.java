@@ -0,0 +1,174 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link RegionIndex} e das revelações que o usam.
+ *
+ * @author Álefe Lucas
+ */
+public class RegionIndexTest {
+
+    @Test
+    public void build_listsZerosAndBorderOfEachRegion() {
+        for (Topology.Kind kind : Topology.Kind.values()) {
+            for (long seed = 0; seed < 10; seed++) {
+                Minesweeper minesweeper = new Minesweeper(Topology.of(kind, 23, 17), 40, seed);
+                minesweeper.init(11, 8);
+                byte[] cells = labels(minesweeper);
+                RegionIndex regions = RegionIndex.build(cells, minesweeper.getTopology());
+
+                boolean[] hidden = new boolean[cells.length];
+                Arrays.fill(hidden, true);
+                for (int position = 0; position < cells.length; position++) {
+                    if (cells[position] != 0) {
+                        continue;
+                    }
+                    int region = regions.regionOf[position];
+                    int[] members = Arrays.copyOfRange(regions.members, regions.starts[region], regions.starts[region + 1]);
+                    Arrays.sort(members);
+                    assertArrayEquals(kind + " " + seed + " " + position, search(minesweeper, cells, hidden, position), members);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void build_givesOneRegionToBoardWithoutMines() {
+        Minesweeper minesweeper = new Minesweeper(Topology.torus(40, 30), 0, 1);
+
+        RegionIndex regions = RegionIndex.build(new byte[1200], minesweeper.getTopology());
+
+        assertEquals(1, regions.size());
+        assertEquals(1200, regions.starts[1]);
+    }
+
+    @Test
+    public void reveal_matchesNeighborSearch() {
+        for (Topology.Kind kind : Topology.Kind.values()) {
+            for (long seed = 0; seed < 20; seed++) {
+                Minesweeper minesweeper = new Minesweeper(Topology.of(kind, 30, 20), 45, seed);
+                minesweeper.enableUndo(10000);
+                if (seed % 2 == 0) {
+                    minesweeper.prepare(15, 10);
+                }
+                Random random = new Random(seed);
+                while (minesweeper.getStatus() == GameStatus.PLAYING) {
+                    int x = random.nextInt(30);
+                    int y = random.nextInt(20);
+                    int move = random.nextInt(10);
+                    if (move == 0 && minesweeper.getFlaggedCellsQuantity() < 10) {
+                        minesweeper.toggleFlag(x, y);
+                    } else if (move == 1 && minesweeper.canUndo()) {
+                        minesweeper.undo();
+                    } else {
+                        assertRevealMatchesSearch(minesweeper, x, y);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reveal_stopsAtRegionCutByFlags() {
+        Minesweeper minesweeper = cutRegion();
+
+        assertEquals(5, minesweeper.reveal(2, 0).length);
+        assertEquals(GameStatus.PLAYING, minesweeper.getStatus());
+    }
+
+    @Test
+    public void reveal_stopsAtRegionCutByFlagsAfterRestore() {
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(MinesweeperSnapshot.toBytes(cutRegion()));
+
+        assertEquals(5, restored.reveal(2, 0).length);
+        assertEquals(GameStatus.PLAYING, restored.getStatus());
+    }
+
+    /**
+     * Retorna uma faixa de 24 quadrados sem minas, com neutralizadores em 15 e 23, cuja região de 0 a
+     * 15 foi revelada só entre as posições 4 e 9, marcadas durante a revelação e desmarcadas depois.
+     */
+    private static Minesweeper cutRegion() {
+        Minesweeper minesweeper = new Minesweeper(1, 24, 0, 4);
+        minesweeper.init(0, 0);
+        minesweeper.setFlagged(4, 0, true);
+        minesweeper.setFlagged(9, 0, true);
+        assertEquals(4, minesweeper.reveal(6, 0).length);
+        minesweeper.setFlagged(4, 0, false);
+        minesweeper.setFlagged(9, 0, false);
+        return minesweeper;
+    }
+
+    /**
+     * Revela a posição dada e confere que as posições reveladas são as de uma busca nos vizinhos feita
+     * sobre o estado anterior à jogada, com os rótulos depois dela, que podem mudar no primeiro toque.
+     */
+    private static void assertRevealMatchesSearch(Minesweeper minesweeper, int x, int y) {
+        int width = minesweeper.getWidth();
+        int size = width * minesweeper.getHeight();
+        boolean[] hidden = new boolean[size];
+        for (int position = 0; position < size; position++) {
+            hidden[position] = !minesweeper.isRevealed(position % width, position / width)
+                    && !minesweeper.isFlagged(position % width, position / width);
+        }
+        int[] revealed = minesweeper.reveal(x, y);
+        Arrays.sort(revealed);
+
+        int[] expected = hidden[width * y + x] ? search(minesweeper, labels(minesweeper), hidden, width * y + x) : new int[0];
+        assertArrayEquals(expected, revealed);
+    }
+
+    /**
+     * Busca em largura de referência: a posição dada e, a partir de cada quadrado vazio alcançado, os
+     * vizinhos ainda escondidos.
+     *
+     * @return as posições alcançadas, em ordem crescente.
+     */
+    private static int[] search(Minesweeper minesweeper, byte[] labels, boolean[] hidden, int start) {
+        Topology topology = minesweeper.getTopology();
+        boolean[] visited = new boolean[labels.length];
+        int[] neighbors = new int[topology.getMaxDegree()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        visited[start] = true;
+        queue.add(start);
+        int[] found = new int[labels.length];
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int position = queue.poll();
+            found[count++] = position;
+            if (labels[position] != 0) {
+                continue;
+            }
+            int degree = topology.neighbors(position, neighbors);
+            for (int i = 0; i < degree; i++) {
+                int neighbor = neighbors[i];
+                if (!visited[neighbor] && hidden[neighbor]) {
+                    visited[neighbor] = true;
+                    queue.add(neighbor);
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Retorna os rótulos do jogo, um byte por quadrado, com 0 nos vazios e 1 nos demais.
+     */
+    private static byte[] labels(Minesweeper minesweeper) {
+        int width = minesweeper.getWidth();
+        byte[] labels = new byte[width * minesweeper.getHeight()];
+        for (int position = 0; position < labels.length; position++) {
+            labels[position] = (byte) (minesweeper.getCellLabel(position % width, position / width) == ' ' ? 0 : 1);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,161 @@
+package alefelucas.minesweeper.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link Topology} e dos jogos nas vizinhanças não quadradas.
+ *
+ * @author Álefe Lucas
+ */
+public class TopologyTest {
+
+    private static final int[][] SIZES = {{1, 1}, {1, 7}, {7, 1}, {2, 5}, {5, 2}, {3, 3}, {9, 9}, {30, 16}, {17, 11}};
+
+    @Test
+    public void neighbors_matchGeometricReference() {
+        for (Topology.Kind kind : Topology.Kind.values()) {
+            for (int[] size : SIZES) {
+                Topology topology = Topology.of(kind, size[0], size[1]);
+                int[] expected = new int[8];
+                int[] actual = new int[topology.getMaxDegree()];
+                for (int y = 0; y < size[1]; y++) {
+                    for (int x = 0; x < size[0]; x++) {
+                        int position = size[0] * y + x;
+                        int expectedCount = Topology.neighbors(kind, size[0], size[1], x, y, expected);
+                        int actualCount = topology.neighbors(position, actual);
+                        int[] sortedExpected = Arrays.copyOf(expected, expectedCount);
+                        int[] sortedActual = Arrays.copyOf(actual, actualCount);
+                        Arrays.sort(sortedExpected);
+                        Arrays.sort(sortedActual);
+                        String cell = kind + " " + size[0] + "x" + size[1] + " (" + x + ", " + y + ")";
+                        assertArrayEquals(cell, sortedExpected, sortedActual);
+                        for (int other = 0; other < size[0] * size[1]; other++) {
+                            assertEquals(cell, Arrays.binarySearch(sortedExpected, other) >= 0, topology.isNeighbor(position, other));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void neighbors_areSymmetric() {
+        for (Topology.Kind kind : Topology.Kind.values()) {
+            for (int[] size : SIZES) {
+                Topology topology = Topology.of(kind, size[0], size[1]);
+                int[] neighbors = new int[topology.getMaxDegree()];
+                for (int position = 0; position < size[0] * size[1]; position++) {
+                    int count = topology.neighbors(position, neighbors);
+                    for (int i = 0; i < count; i++) {
+                        assertTrue(topology.isNeighbor(neighbors[i], position));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void degrees_matchKind() {
+        assertEquals(8, Topology.square(10, 10).getMaxDegree());
+        assertEquals(8, Topology.torus(10, 10).getMaxDegree());
+        assertEquals(6, Topology.hex(10, 10).getMaxDegree());
+        assertEquals(2, Topology.torus(3, 1).getMaxDegree());
+    }
+
+    @Test
+    public void of_reusesLastTopologyOfSameSize() {
+        Topology topology = Topology.hex(12, 13);
+
+        assertSame(topology, Topology.of(Topology.Kind.HEX, 12, 13));
+        assertNotSame(topology, Topology.torus(12, 13));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_rejectsEmptyBoard() {
+        Topology.square(0, 5);
+    }
+
+    @Test
+    public void reveal_keepsFirstTouchSafeOnEveryKind() {
+        for (Topology.Kind kind : Topology.Kind.values()) {
+            for (long seed = 0; seed < 20; seed++) {
+                Topology topology = Topology.of(kind, 16, 12);
+                Minesweeper minesweeper = new Minesweeper(topology, 60, seed);
+                int x = (int) (seed % 16);
+                int y = (int) (seed % 12);
+                if (seed % 2 == 0) {
+                    minesweeper.prepare(8, 6);
+                }
+                minesweeper.reveal(x, y);
+
+                assertNotEquals(GameStatus.LOST, minesweeper.getStatus());
+                int[] neighbors = new int[topology.getMaxDegree()];
+                int count = topology.neighbors(16 * y + x, neighbors);
+                for (int i = 0; i < count; i++) {
+                    assertNotEquals('*', minesweeper.getCellLabel(neighbors[i] % 16, neighbors[i] / 16));
+                }
+                assertLabelsMatchNeighbors(minesweeper);
+            }
+        }
+    }
+
+    @Test
+    public void reveal_spreadsAcrossTorusEdges() {
+        Minesweeper minesweeper = new Minesweeper(Topology.torus(10, 10), 0, 1);
+
+        assertEquals(100, minesweeper.reveal(0, 0).length);
+        assertEquals(GameStatus.WON, minesweeper.getStatus());
+    }
+
+    @Test
+    public void play_endsOnHexAndTorus() {
+        for (Topology.Kind kind : new Topology.Kind[]{Topology.Kind.TORUS, Topology.Kind.HEX}) {
+            Minesweeper minesweeper = new Minesweeper(Topology.of(kind, 20, 15), 40, 7);
+            Random random = new Random(3);
+            while (minesweeper.getStatus() == GameStatus.PLAYING) {
+                minesweeper.reveal(random.nextInt(20), random.nextInt(15));
+            }
+            assertLabelsMatchNeighbors(minesweeper);
+        }
+    }
+
+    @Test
+    public void snapshot_keepsTopology() {
+        Minesweeper original = new Minesweeper(Topology.hex(25, 20), 70, 11);
+        original.reveal(12, 10);
+
+        Minesweeper restored = MinesweeperSnapshot.fromBytes(MinesweeperSnapshot.toBytes(original));
+
+        assertEquals(Topology.Kind.HEX, restored.getTopology().getKind());
+        assertArrayEquals(MinesweeperSnapshot.toBytes(original), MinesweeperSnapshot.toBytes(restored));
+        assertArrayEquals(original.reveal(0, 0), restored.reveal(0, 0));
+    }
+
+    /**
+     * Confere que o rótulo de cada quadrado sem mina nem neutralizador é a quantidade de minas vizinhas.
+     */
+    private static void assertLabelsMatchNeighbors(Minesweeper minesweeper) {
+        Topology topology = minesweeper.getTopology();
+        int width = minesweeper.getWidth();
+        int[] neighbors = new int[topology.getMaxDegree()];
+        for (int position = 0; position < width * minesweeper.getHeight(); position++) {
+            char label = minesweeper.getCellLabel(position % width, position / width);
+            if (label == '*' || label == 'N') {
+                continue;
+            }
+            int mines = 0;
+            int count = topology.neighbors(position, neighbors);
+            for (int i = 0; i < count; i++) {
+                if (minesweeper.getCellLabel(neighbors[i] % width, neighbors[i] / width) == '*') {
+                    mines++;
+                }
+            }
+            assertEquals(mines == 0 ? ' ' : (char) ('0' + mines), label);
+        }
+    }
+}
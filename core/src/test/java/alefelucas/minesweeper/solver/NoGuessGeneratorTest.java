@@ -0,0 +1,81 @@
+package alefelucas.minesweeper.solver;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+import static alefelucas.minesweeper.model.GameStatus.PLAYING;
+import static alefelucas.minesweeper.model.GameStatus.WON;
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link NoGuessGenerator}.
+ *
+ * @author Álefe Lucas
+ */
+public class NoGuessGeneratorTest {
+
+    @Test
+    public void generate_returnsBoardSolvableFromTheStart() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        try {
+            NoGuessGenerator generator = new NoGuessGenerator(workers, 2, 30, TimeUnit.SECONDS);
+            for (int i = 0; i < 5; i++) {
+                Minesweeper minesweeper = generator.generate(16, 16, 40);
+
+                assertTrue(minesweeper.isRevealed(8, 8));
+                assertEquals(PLAYING, minesweeper.getStatus());
+                assertSolvesWithoutGuessing(new Minesweeper(16, 16, 40, minesweeper.getSeed()), 8, 8);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void generate_fallsBackToNormalBoardAndCancelsWorkers() throws Exception {
+        ThreadPoolExecutor workers = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+        try {
+            // Campos tão densos quase nunca são resolvidos sem chute.
+            NoGuessGenerator generator = new NoGuessGenerator(workers, 2, 100, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            Minesweeper minesweeper = generator.generate(100, 100, 2500);
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertFalse(minesweeper.isRevealed(50, 50));
+            assertEquals(2500, minesweeper.getMineQuantity());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (workers.getActiveCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, workers.getActiveCount());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Refaz a resolução sem o orçamento curto do gerador, para que o teste não dependa da
+     * velocidade da máquina.
+     */
+    private static void assertSolvesWithoutGuessing(Minesweeper minesweeper, int startX, int startY) {
+        int width = minesweeper.getWidth();
+        minesweeper.reveal(startX, startY);
+        Solver solver = new Solver(minesweeper);
+        while (minesweeper.getStatus() == PLAYING) {
+            int[] safe = solver.hint(TimeUnit.SECONDS.toNanos(10)).getSafe();
+            assertTrue(safe.length > 0);
+            for (int position : safe) {
+                if (!minesweeper.isRevealed(position % width, position / width)) {
+                    minesweeper.reveal(position % width, position / width);
+                }
+            }
+        }
+        assertEquals(WON, minesweeper.getStatus());
+    }
+}
@@ -0,0 +1,74 @@
+package alefelucas.minesweeper.solver;
+
+import org.junit.Test;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+import static alefelucas.minesweeper.model.GameStatus.PLAYING;
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link ProbabilityMap}.
+ *
+ * @author Álefe Lucas
+ */
+public class ProbabilityMapTest {
+
+    @Test
+    public void update_keepsDeducedCellsCertain() {
+        for (long seed = 0; seed < 100; seed++) {
+            Minesweeper minesweeper = new Minesweeper(16, 16, 40, seed);
+            ProbabilityMap probabilities = new ProbabilityMap(minesweeper);
+            probabilities.update(minesweeper.reveal(8, 8));
+            Solver solver = new Solver(minesweeper);
+
+            Hint hint = solver.hint();
+            while (minesweeper.getStatus() == PLAYING && hint.getSafe().length > 0) {
+                for (int mine : hint.getMines()) {
+                    assertEquals(1, probabilities.getProbability(mine % 16, mine / 16), 1e-6);
+                }
+                for (int safe : hint.getSafe()) {
+                    assertEquals(0, probabilities.getProbability(safe % 16, safe / 16), 1e-6);
+                }
+                int safe = hint.getSafe()[0];
+                probabilities.update(minesweeper.reveal(safe % 16, safe / 16));
+                hint = solver.hint();
+            }
+        }
+    }
+
+    @Test
+    public void update_reusesDiscardedComponentIds() {
+        Minesweeper minesweeper = new Minesweeper(30, 30, 150, 4);
+        ProbabilityMap probabilities = new ProbabilityMap(minesweeper);
+        probabilities.update(minesweeper.reveal(15, 15));
+        Solver solver = new Solver(minesweeper);
+
+        int updates = 0;
+        Hint hint = solver.hint();
+        while (minesweeper.getStatus() == PLAYING && hint.getSafe().length > 0) {
+            int safe = hint.getSafe()[0];
+            probabilities.update(minesweeper.reveal(safe % 30, safe / 30));
+            updates++;
+            hint = solver.hint();
+        }
+
+        int hidden = 0;
+        for (int position = 0; position < 900; position++) {
+            if (!minesweeper.isRevealed(position % 30, position / 30)) {
+                hidden++;
+            }
+        }
+        assertTrue(updates > 50);
+        assertTrue(probabilities.getComponentIdCount() < updates);
+        assertTrue(probabilities.getComponentIdCount() <= hidden);
+    }
+
+    @Test
+    public void getProbability_isUniformBeforeFirstReveal() {
+        Minesweeper minesweeper = new Minesweeper(10, 10, 25);
+        ProbabilityMap probabilities = new ProbabilityMap(minesweeper);
+
+        assertEquals(0.25, probabilities.getProbability(3, 7), 1e-6);
+    }
+}
@@ -0,0 +1,41 @@
+package alefelucas.minesweeper.solver;
+
+import org.junit.Test;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+import static alefelucas.minesweeper.model.GameStatus.LOST;
+import static alefelucas.minesweeper.model.GameStatus.PLAYING;
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link Solver}.
+ *
+ * @author Álefe Lucas
+ */
+public class SolverTest {
+
+    @Test
+    public void hint_neverPointsToAMineAsSafe() {
+        for (long seed = 0; seed < 200; seed++) {
+            Minesweeper minesweeper = new Minesweeper(16, 16, 40, seed);
+            minesweeper.reveal(8, 8);
+            Solver solver = new Solver(minesweeper);
+
+            Hint hint = solver.hint();
+            while (minesweeper.getStatus() == PLAYING && hint.getSafe().length > 0) {
+                for (int mine : hint.getMines()) {
+                    assertFalse(minesweeper.isRevealed(mine % 16, mine / 16));
+                    assertEquals('*', minesweeper.getCellLabel(mine % 16, mine / 16));
+                }
+                for (int safe : hint.getSafe()) {
+                    if (!minesweeper.isRevealed(safe % 16, safe / 16)) {
+                        minesweeper.reveal(safe % 16, safe / 16);
+                    }
+                    assertNotEquals(LOST, minesweeper.getStatus());
+                }
+                hint = solver.hint();
+            }
+        }
+    }
+}
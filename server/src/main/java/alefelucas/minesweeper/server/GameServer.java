@@ -0,0 +1,180 @@
+package alefelucas.minesweeper.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor de partidas sem interface, acessível só pelo loopback. Cada conexão é atendida por uma
+ * thread do pool e pode jogar em qualquer quantidade de partidas, guardadas no {@link SessionStore}.
+ * <p>
+ * O protocolo é de texto, um comando por linha, e cada comando recebe uma linha de resposta,
+ * {@code OK ...} ou {@code ERR mensagem}:
+ * <ul>
+ * <li>{@code NEW altura largura minas [semente]} responde {@code OK id};</li>
+ * <li>{@code REVEAL id x y} responde {@code OK status reveladas}; numa partida encerrada, nada é
+ * revelado e a resposta é {@code OK status 0};</li>
+ * <li>{@code STATUS id} responde {@code OK status};</li>
+ * <li>{@code CLOSE id} descarta a partida e responde {@code OK};</li>
+ * <li>{@code STATS} responde {@code OK partidas ativas bytesAtivos bytesCompactados heapUsado}.</li>
+ * </ul>
+ *
+ * @author Álefe Lucas
+ */
+public class GameServer implements Closeable {
+
+    /**
+     * Maior campo aceito por {@code NEW}, em quadrados.
+     */
+    static final int MAX_CELLS = 1 << 22;
+
+    private static final long SWEEP_PERIOD_MILLIS = 1000;
+
+    private final SessionStore store;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor();
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+
+    /**
+     * Abre o servidor na porta dada do loopback (zero para uma porta livre) e começa a aceitar conexões.
+     */
+    public GameServer(int port, SessionStore store, ExecutorService workers) throws IOException {
+        this.store = store;
+        this.workers = workers;
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.acceptor = new Thread(this::accept, "game-server-acceptor");
+        this.acceptor.start();
+        this.sweeper.scheduleWithFixedDelay(store::sweep, SWEEP_PERIOD_MILLIS, SWEEP_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Retorna a porta em que o servidor está aceitando conexões.
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                this.workers.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Atende os comandos de uma conexão até ela ser fechada.
+     */
+    private void serve(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(handle(line));
+                out.write('\n');
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Conexão encerrada pelo cliente.
+        }
+    }
+
+    /**
+     * Executa um comando e retorna a linha de resposta.
+     */
+    String handle(String line) {
+        String[] args = line.trim().split(" +");
+        try {
+            switch (args[0]) {
+                case "NEW": {
+                    int height = Integer.parseInt(args[1]);
+                    int width = Integer.parseInt(args[2]);
+                    int mines = Integer.parseInt(args[3]);
+                    long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+                    if (height <= 0 || width <= 0 || (long) height * width > MAX_CELLS || mines < 0) {
+                        return "ERR invalid board";
+                    }
+                    return "OK " + this.store.create(height, width, mines, seed).id;
+                }
+                case "REVEAL": {
+                    Session session = this.store.get(Long.parseLong(args[1]));
+                    if (session == null) {
+                        return "ERR no such session";
+                    }
+                    int revealed;
+                    try {
+                        revealed = session.reveal(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+                    } catch (IllegalStateException e) {
+                        return "ERR no such session";
+                    }
+                    return "OK " + session.getStatus() + " " + revealed;
+                }
+                case "STATUS": {
+                    Session session = this.store.get(Long.parseLong(args[1]));
+                    return session == null ? "ERR no such session" : "OK " + session.getStatus();
+                }
+                case "CLOSE":
+                    return this.store.remove(Long.parseLong(args[1])) ? "OK" : "ERR no such session";
+                case "STATS": {
+                    Runtime runtime = Runtime.getRuntime();
+                    return "OK " + this.store.getSessionCount() + " " + this.store.getLiveSessionCount() + " " +
+                            this.store.getLiveBytes() + " " + this.store.getCompactedBytes() + " " +
+                            (runtime.totalMemory() - runtime.freeMemory());
+                }
+                default:
+                    return "ERR unknown command";
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            return "ERR bad arguments";
+        }
+    }
+
+    /**
+     * Para de aceitar conexões e encerra as threads do servidor.
+     */
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+        this.sweeper.shutdownNow();
+        this.workers.shutdownNow();
+    }
+
+    /**
+     * Executa o servidor pela linha de comando.
+     * <p>
+     * Argumentos: [porta] [orçamento em MB] [segundos até compactar] [segundos até descartar].
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        long budget = (args.length > 1 ? Long.parseLong(args[1]) : 256) << 20;
+        long compactAfter = TimeUnit.SECONDS.toNanos(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        long evictAfter = TimeUnit.SECONDS.toNanos(args.length > 3 ? Long.parseLong(args[3]) : 3600);
+
+        SessionStore store = new SessionStore(budget, compactAfter, evictAfter);
+        GameServer server = new GameServer(port, store, Executors.newCachedThreadPool());
+        System.out.println("Servidor em " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+    }
+}
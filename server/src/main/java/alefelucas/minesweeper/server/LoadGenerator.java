@@ -0,0 +1,127 @@
+package alefelucas.minesweeper.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de carga para o {@link GameServer}: abre várias conexões, cria muitas partidas em cada
+ * uma e faz revelações aleatórias alternando entre elas. Ao final, informa as revelações por
+ * segundo e quantas partidas cabem num gigabyte, segundo o {@code STATS} do servidor.
+ * <p>
+ * Argumentos: [porta] [conexões] [partidas por conexão] [segundos] [altura] [largura] [minas].
+ *
+ * @author Álefe Lucas
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int sessionsPerConnection = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+        int height = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+        int width = args.length > 5 ? Integer.parseInt(args[5]) : 30;
+        int mines = args.length > 6 ? Integer.parseInt(args[6]) : 99;
+
+        AtomicLong reveals = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] threads = new Thread[connections];
+        for (int c = 0; c < connections; c++) {
+            int client = c;
+            threads[c] = new Thread(() -> {
+                try {
+                    reveals.addAndGet(play(port, client, sessionsPerConnection, height, width, mines, deadline));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        try (Client client = new Client(port)) {
+            String[] stats = client.call("STATS").split(" ");
+            long sessions = Long.parseLong(stats[1]);
+            long heapUsed = Long.parseLong(stats[5]);
+            System.out.println("Revelações por segundo: " + reveals.get() / seconds);
+            System.out.println("Partidas: " + sessions + " (" + stats[2] + " ativas)");
+            System.out.println("Bytes ativos: " + stats[3] + ", compactados: " + stats[4]);
+            System.out.println("Partidas por GB (estimado): " + sessions * (1L << 30) / Math.max(1, Long.parseLong(stats[3]) + Long.parseLong(stats[4])));
+            System.out.println("Partidas por GB (heap): " + sessions * (1L << 30) / Math.max(1, heapUsed));
+        }
+    }
+
+    /**
+     * Cria as partidas de uma conexão e revela posições aleatórias nelas até o prazo, recomeçando
+     * as partidas terminadas.
+     *
+     * @return a quantidade de revelações feitas.
+     */
+    private static long play(int port, int seed, int sessions, int height, int width, int mines, long deadline) throws IOException {
+        Random random = new Random(seed);
+        long reveals = 0;
+        try (Client client = new Client(port)) {
+            long[] ids = new long[sessions];
+            for (int i = 0; i < sessions; i++) {
+                ids[i] = client.create(height, width, mines, random.nextLong());
+            }
+            for (int i = 0; System.nanoTime() < deadline; i = (i + 1) % sessions) {
+                String reply = client.call("REVEAL " + ids[i] + " " + random.nextInt(width) + " " + random.nextInt(height));
+                reveals++;
+                if (!reply.startsWith("OK PLAYING")) {
+                    client.call("CLOSE " + ids[i]);
+                    ids[i] = client.create(height, width, mines, random.nextLong());
+                }
+            }
+        }
+        return reveals;
+    }
+
+    /**
+     * Conexão com o servidor, que envia um comando e espera a resposta.
+     */
+    private static final class Client implements AutoCloseable {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final BufferedReader in;
+
+        Client(int port) throws IOException {
+            this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            this.socket.setTcpNoDelay(true);
+            this.out = this.socket.getOutputStream();
+            this.in = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.US_ASCII));
+        }
+
+        String call(String command) throws IOException {
+            this.out.write((command + "\n").getBytes(StandardCharsets.US_ASCII));
+            String reply = this.in.readLine();
+            if (reply == null) {
+                throw new IOException("Connection closed");
+            }
+            return reply;
+        }
+
+        long create(int height, int width, int mines, long seed) throws IOException {
+            String reply = this.call("NEW " + height + " " + width + " " + mines + " " + seed);
+            if (!reply.startsWith("OK ")) {
+                throw new IOException(reply);
+            }
+            return Long.parseLong(reply.substring(3));
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.socket.close();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package alefelucas.minesweeper.server;
+
+import alefelucas.minesweeper.model.GameStatus;
+import alefelucas.minesweeper.model.Minesweeper;
+import alefelucas.minesweeper.model.MinesweeperSnapshot;
+
+/**
+ * Partida hospedada pelo servidor. Fica ativa, como um {@link Minesweeper}, ou compactada, como um
+ * snapshot de {@link MinesweeperSnapshot}; uma partida compactada é restaurada no próximo acesso.
+ * O acesso à partida é sincronizado, então jogadas na mesma partida são feitas uma de cada vez, e
+ * jogadas em partidas diferentes, em paralelo. Nenhum método segura a trava de uma partida
+ * enquanto o {@link SessionStore} compacta outras, então não há espera circular entre partidas.
+ *
+ * @author Álefe Lucas
+ */
+final class Session {
+
+    /**
+     * Custo fixo estimado de uma partida na memória, além dos quadrados.
+     */
+    private static final int OVERHEAD = 128;
+
+    final long id;
+    private final SessionStore store;
+    private Minesweeper game;
+    private byte[] compacted;
+
+    /**
+     * Memória da partida ativa contada no {@link SessionStore}, atualizada depois de cada jogada, já
+     * que a fila de trabalho e as regiões vazias só são alocadas quando o campo é gerado.
+     */
+    private long liveBytes;
+
+    /**
+     * Status da partida quando foi compactada.
+     */
+    private GameStatus status;
+    private volatile long lastAccess;
+
+    /**
+     * Se a partida está na fila de ativas do {@link SessionStore}; toda partida ativa está.
+     */
+    private boolean queued = true;
+
+    /**
+     * Se a partida foi usada desde a última passada da fila de ativas.
+     */
+    private boolean referenced;
+    private boolean released;
+
+    Session(long id, Minesweeper game, SessionStore store) {
+        this.id = id;
+        this.game = game;
+        this.store = store;
+        this.lastAccess = System.nanoTime();
+        this.liveBytes = liveBytes(game);
+    }
+
+    /**
+     * Revela a posição dada, restaurando a partida se estiver compactada. Uma partida encerrada não
+     * muda mais: nada é revelado, e ela nem é restaurada.
+     *
+     * @return a quantidade de posições reveladas.
+     */
+    int reveal(int x, int y) {
+        boolean restored;
+        boolean grown;
+        int revealed;
+        synchronized (this) {
+            if (!this.released && (this.game != null ? this.game.getStatus() : this.status) != GameStatus.PLAYING) {
+                this.lastAccess = System.nanoTime();
+                return 0;
+            }
+            restored = this.game == null;
+            Minesweeper game = activate();
+            if (x < 0 || y < 0 || x >= game.getWidth() || y >= game.getHeight()) {
+                throw new IllegalArgumentException("Position outside the board");
+            }
+            revealed = game.reveal(x, y).length;
+            grown = recount();
+        }
+        if (restored || grown) {
+            this.store.enforceBudget();
+        }
+        return revealed;
+    }
+
+    /**
+     * Retorna o status da partida, sem restaurá-la se estiver compactada.
+     */
+    synchronized GameStatus getStatus() {
+        this.lastAccess = System.nanoTime();
+        return this.game != null ? this.game.getStatus() : this.status;
+    }
+
+    /**
+     * Compacta a partida, se estiver ativa, liberando a tabela de quadrados.
+     */
+    synchronized void compact() {
+        if (this.game == null) {
+            return;
+        }
+        this.compacted = MinesweeperSnapshot.toBytes(this.game);
+        this.status = this.game.getStatus();
+        this.game = null;
+        this.store.onCompacted(this.liveBytes, this.compacted.length + OVERHEAD);
+        this.liveBytes = 0;
+    }
+
+    /**
+     * Descarta a partida, descontando sua memória do armazenamento.
+     */
+    synchronized void release() {
+        if (this.game != null) {
+            this.store.onReleased(this.liveBytes, 0);
+            this.liveBytes = 0;
+        } else if (this.compacted != null) {
+            this.store.onReleased(0, this.compacted.length + OVERHEAD);
+        }
+        this.game = null;
+        this.compacted = null;
+        this.released = true;
+    }
+
+    /**
+     * Trata a partida ao sair da fila de ativas: se foi usada desde a última passada, volta para o
+     * fim da fila; senão, é compactada.
+     */
+    synchronized void age() {
+        if (this.game == null) {
+            this.queued = false;
+        } else if (this.referenced) {
+            this.referenced = false;
+            this.store.enqueue(this);
+        } else {
+            this.queued = false;
+            compact();
+        }
+    }
+
+    synchronized boolean isLive() {
+        return this.game != null;
+    }
+
+    synchronized boolean isReleased() {
+        return this.released;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Marca o acesso e restaura a partida, se estiver compactada.
+     *
+     * @throws IllegalStateException se a partida já tiver sido descartada.
+     */
+    private Minesweeper activate() {
+        if (this.released) {
+            throw new IllegalStateException("Session closed");
+        }
+        this.lastAccess = System.nanoTime();
+        this.referenced = true;
+        if (this.game == null) {
+            this.game = MinesweeperSnapshot.fromBytes(this.compacted);
+            this.liveBytes = liveBytes(this.game);
+            this.store.onRestored(this.compacted.length + OVERHEAD, this.liveBytes);
+            this.compacted = null;
+            if (!this.queued) {
+                this.queued = true;
+                this.store.enqueue(this);
+            }
+        }
+        return this.game;
+    }
+
+    /**
+     * Atualiza a memória contada da partida ativa, se ela mudou.
+     *
+     * @return se a memória cresceu.
+     */
+    private boolean recount() {
+        long liveBytes = liveBytes(this.game);
+        if (liveBytes == this.liveBytes) {
+            return false;
+        }
+        this.store.onResized(liveBytes - this.liveBytes);
+        boolean grown = liveBytes > this.liveBytes;
+        this.liveBytes = liveBytes;
+        return grown;
+    }
+
+    /**
+     * Retorna a memória da partida contada no {@link SessionStore}, ou zero se não estiver ativa.
+     */
+    synchronized long getLiveBytes() {
+        return this.liveBytes;
+    }
+
+    /**
+     * Memória estimada de uma partida ativa: a de {@link Minesweeper#footprint()}, que depois da
+     * primeira jogada fica entre 11 e 13 bytes por quadrado nos campos medidos, e o custo fixo.
+     */
+    static long liveBytes(Minesweeper game) {
+        return game.footprint() + OVERHEAD;
+    }
+}
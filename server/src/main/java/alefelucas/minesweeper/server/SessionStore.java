@@ -0,0 +1,169 @@
+package alefelucas.minesweeper.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+/**
+ * Armazenamento das partidas do servidor, com um orçamento de memória para as partidas ativas.
+ * <ul>
+ * <li>partidas paradas há mais de {@code compactAfterNanos} são compactadas num snapshot;</li>
+ * <li>partidas paradas há mais de {@code evictAfterNanos} são descartadas;</li>
+ * <li>se as partidas ativas passarem do orçamento, as menos usadas são compactadas até voltarem a
+ * {@link #BUDGET_TARGET} do orçamento.</li>
+ * </ul>
+ * As duas primeiras regras são aplicadas por {@link #sweep()}, chamado periodicamente pelo
+ * {@link GameServer}; a última, logo depois de uma partida ser criada ou restaurada, fora da
+ * trava da partida.
+ * <p>
+ * As partidas ativas ficam numa fila por ordem de ativação, percorrida como um relógio de segunda
+ * chance: uma partida usada desde que entrou na fila volta para o fim dela uma vez antes de ser
+ * compactada. Assim escolher quem compactar custa O(1) por partida, sem ordenar todas.
+ *
+ * @author Álefe Lucas
+ */
+public class SessionStore {
+
+    private static final double BUDGET_TARGET = 0.9;
+
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Session> live = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong liveBytes = new AtomicLong();
+    private final AtomicLong compactedBytes = new AtomicLong();
+
+    private final long memoryBudget;
+    private final long compactAfterNanos;
+    private final long evictAfterNanos;
+
+    /**
+     * @param memoryBudget      memória máxima das partidas ativas, em bytes
+     * @param compactAfterNanos tempo parada depois do qual uma partida é compactada
+     * @param evictAfterNanos   tempo parada depois do qual uma partida é descartada
+     */
+    public SessionStore(long memoryBudget, long compactAfterNanos, long evictAfterNanos) {
+        this.memoryBudget = memoryBudget;
+        this.compactAfterNanos = compactAfterNanos;
+        this.evictAfterNanos = evictAfterNanos;
+    }
+
+    /**
+     * Cria uma partida nova.
+     */
+    Session create(int height, int width, int mineQuantity, long seed) {
+        Minesweeper game = new Minesweeper(height, width, mineQuantity, seed);
+        Session session = new Session(this.nextId.getAndIncrement(), game, this);
+        this.liveBytes.addAndGet(session.getLiveBytes());
+        this.sessions.put(session.id, session);
+        this.live.add(session);
+        enforceBudget();
+        return session;
+    }
+
+    /**
+     * Retorna a partida dada, ou null se ela não existir ou tiver sido descartada.
+     */
+    Session get(long id) {
+        return this.sessions.get(id);
+    }
+
+    /**
+     * Descarta a partida dada.
+     *
+     * @return se a partida existia.
+     */
+    boolean remove(long id) {
+        Session session = this.sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.release();
+        return true;
+    }
+
+    /**
+     * Compacta as partidas frias e descarta as abandonadas. Também tira da fila de ativas as
+     * partidas descartadas, que de outra forma só sairiam dela quando o orçamento estourasse.
+     */
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Session session : this.sessions.values()) {
+            long idle = now - session.getLastAccess();
+            if (idle > this.evictAfterNanos) {
+                remove(session.id);
+            } else if (idle > this.compactAfterNanos) {
+                session.compact();
+            }
+        }
+        this.live.removeIf(Session::isReleased);
+        enforceBudget();
+    }
+
+    /**
+     * Se as partidas ativas passarem do orçamento, compacta as menos usadas. Várias threads podem
+     * fazer isso ao mesmo tempo, cada uma tirando partidas diferentes da fila.
+     */
+    void enforceBudget() {
+        if (this.liveBytes.get() <= this.memoryBudget) {
+            return;
+        }
+        long target = (long) (this.memoryBudget * BUDGET_TARGET);
+        Session session;
+        while (this.liveBytes.get() > target && (session = this.live.poll()) != null) {
+            session.age();
+        }
+    }
+
+    /**
+     * Põe uma partida restaurada ou de segunda chance no fim da fila de ativas.
+     */
+    void enqueue(Session session) {
+        this.live.add(session);
+    }
+
+    void onResized(long live) {
+        this.liveBytes.addAndGet(live);
+    }
+
+    void onCompacted(long live, long compacted) {
+        this.liveBytes.addAndGet(-live);
+        this.compactedBytes.addAndGet(compacted);
+    }
+
+    void onRestored(long compacted, long live) {
+        this.compactedBytes.addAndGet(-compacted);
+        this.liveBytes.addAndGet(live);
+    }
+
+    void onReleased(long live, long compacted) {
+        this.liveBytes.addAndGet(-live);
+        this.compactedBytes.addAndGet(-compacted);
+    }
+
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Retorna a quantidade de partidas ativas; percorre todas as partidas.
+     */
+    public int getLiveSessionCount() {
+        int live = 0;
+        for (Session session : this.sessions.values()) {
+            if (session.isLive()) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    public long getLiveBytes() {
+        return this.liveBytes.get();
+    }
+
+    public long getCompactedBytes() {
+        return this.compactedBytes.get();
+    }
+}
@@ -0,0 +1,140 @@
+package alefelucas.minesweeper.server;
+
+import org.junit.Test;
+
+import java.util.concurrent.Executors;
+
+import alefelucas.minesweeper.model.GameStatus;
+import alefelucas.minesweeper.model.Minesweeper;
+import alefelucas.minesweeper.model.MinesweeperSnapshot;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link SessionStore} e do protocolo do {@link GameServer}.
+ *
+ * @author Álefe Lucas
+ */
+public class SessionStoreTest {
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    @Test
+    public void compactedSessionContinuesTheSameGame() {
+        SessionStore store = new SessionStore(Long.MAX_VALUE, NEVER, NEVER);
+        Session session = store.create(16, 30, 99, 7L);
+        Minesweeper reference = new Minesweeper(16, 30, 99, 7L);
+
+        assertEquals(reference.reveal(3, 4).length, session.reveal(3, 4));
+        session.compact();
+        assertFalse(session.isLive());
+        assertEquals(0, store.getLiveSessionCount());
+        assertEquals(reference.getStatus(), session.getStatus());
+
+        for (int y = 0; y < 16 && reference.getStatus() == GameStatus.PLAYING; y += 3) {
+            for (int x = 0; x < 30 && reference.getStatus() == GameStatus.PLAYING; x += 5) {
+                if (!reference.isRevealed(x, y)) {
+                    assertEquals(reference.reveal(x, y).length, session.reveal(x, y));
+                    session.compact();
+                }
+            }
+        }
+        assertEquals(reference.getStatus(), session.getStatus());
+    }
+
+    @Test
+    public void finishedSessionIgnoresReveals() {
+        SessionStore store = new SessionStore(Long.MAX_VALUE, NEVER, NEVER);
+        Session session = store.create(9, 9, 40, 2L);
+        session.reveal(4, 4);
+        for (int position = 0; position < 81 && session.getStatus() == GameStatus.PLAYING; position++) {
+            session.reveal(position % 9, position / 9);
+        }
+        GameStatus finished = session.getStatus();
+        assertNotEquals(GameStatus.PLAYING, finished);
+
+        for (int position = 0; position < 81; position++) {
+            assertEquals(0, session.reveal(position % 9, position / 9));
+            assertEquals(finished, session.getStatus());
+        }
+        session.compact();
+        assertEquals(0, session.reveal(0, 0));
+        assertFalse(session.isLive());
+        assertEquals(finished, session.getStatus());
+    }
+
+    @Test
+    public void budgetCompactsLeastRecentlyUsedSessions() {
+        Minesweeper sample = new Minesweeper(16, 30, 99, 0L);
+        sample.reveal(0, 0);
+        long perSession = Session.liveBytes(sample);
+        SessionStore store = new SessionStore(perSession * 10, NEVER, NEVER);
+
+        Session first = store.create(16, 30, 99, 1L);
+        first.reveal(0, 0);
+        for (int i = 0; i < 20; i++) {
+            store.create(16, 30, 99, i).reveal(0, 0);
+        }
+        assertEquals(21, store.getSessionCount());
+        assertTrue(store.getLiveBytes() <= perSession * 10);
+        assertFalse(first.isLive());
+        assertTrue(store.getCompactedBytes() > 0);
+    }
+
+    @Test
+    public void liveBytesFollowGameFootprint() {
+        SessionStore store = new SessionStore(Long.MAX_VALUE, NEVER, NEVER);
+        Session session = store.create(16, 30, 99, 7L);
+        Minesweeper reference = new Minesweeper(16, 30, 99, 7L);
+        assertEquals(Session.liveBytes(reference), store.getLiveBytes());
+
+        session.reveal(3, 4);
+        reference.reveal(3, 4);
+        assertEquals(Session.liveBytes(reference), store.getLiveBytes());
+        assertTrue(store.getLiveBytes() > 9L * 16 * 30);
+
+        session.compact();
+        assertEquals(0, store.getLiveBytes());
+        session.reveal(0, 0);
+        reference.reveal(0, 0);
+        assertEquals(Session.liveBytes(MinesweeperSnapshot.fromBytes(MinesweeperSnapshot.toBytes(reference))), store.getLiveBytes());
+        session.release();
+        assertEquals(0, store.getLiveBytes());
+    }
+
+    @Test
+    public void sweepEvictsIdleSessions() {
+        SessionStore store = new SessionStore(Long.MAX_VALUE, 0, NEVER);
+        Session session = store.create(9, 9, 10, 3L);
+        session.reveal(4, 4);
+        store.sweep();
+        assertEquals(1, store.getSessionCount());
+        assertEquals(0, store.getLiveSessionCount());
+        assertEquals(0, store.getLiveBytes());
+
+        store = new SessionStore(Long.MAX_VALUE, 0, 0);
+        store.create(9, 9, 10, 3L);
+        store.sweep();
+        assertEquals(0, store.getSessionCount());
+        assertEquals(0, store.getCompactedBytes());
+    }
+
+    @Test
+    public void protocolRejectsBadCommands() throws Exception {
+        SessionStore store = new SessionStore(Long.MAX_VALUE, NEVER, NEVER);
+        try (GameServer server = new GameServer(0, store, Executors.newSingleThreadExecutor())) {
+            String id = server.handle("NEW 9 9 10 5").substring(3);
+            assertTrue(server.handle("REVEAL " + id + " 4 4").startsWith("OK "));
+            String won = server.handle("NEW 9 9 80 5").substring(3);
+            assertTrue(server.handle("REVEAL " + won + " 4 4").startsWith("OK WON "));
+            assertEquals("OK WON 0", server.handle("REVEAL " + won + " 0 0"));
+            assertEquals("OK", server.handle("CLOSE " + won));
+            assertEquals("ERR bad arguments", server.handle("REVEAL " + id + " 9 0"));
+            assertEquals("ERR no such session", server.handle("STATUS 999"));
+            assertEquals("ERR invalid board", server.handle("NEW 0 9 10"));
+            assertEquals("ERR unknown command", server.handle("FLAG " + id));
+            assertEquals("OK", server.handle("CLOSE " + id));
+            assertEquals(0, store.getSessionCount());
+        }
+    }
+}
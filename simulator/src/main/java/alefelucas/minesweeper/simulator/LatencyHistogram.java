@@ -0,0 +1,86 @@
+package alefelucas.minesweeper.simulator;
+
+/**
+ * Histograma de latências em nanossegundos, com baldes logarítmicos: cada potência de dois é
+ * dividida em {@link #SUB_BUCKETS} baldes, o que dá um erro relativo de no máximo 1/16 nos
+ * percentis. Não é seguro para uso entre threads; cada tarefa do {@link Simulator} tem o seu
+ * e eles são somados com {@link #add(LatencyHistogram)} ao final.
+ *
+ * @author Álefe Lucas
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long total;
+    private long max;
+
+    /**
+     * Registra uma latência.
+     */
+    public void record(long nanos) {
+        this.counts[bucket(nanos)]++;
+        this.total++;
+        this.max = Math.max(this.max, nanos);
+    }
+
+    /**
+     * Soma as contagens de outro histograma a este.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.total += other.total;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Retorna o limite superior do balde que contém o percentil dado (de 0 a 100).
+     */
+    public long percentile(double percentile) {
+        long rank = (long) Math.ceil(this.total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(upperBound(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Retorna a maior latência registrada.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Retorna a quantidade de latências registradas.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        int subBucket = (int) (nanos >>> exponent) - SUB_BUCKETS;
+        return (exponent + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
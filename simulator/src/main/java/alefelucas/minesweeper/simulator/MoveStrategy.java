@@ -0,0 +1,21 @@
+package alefelucas.minesweeper.simulator;
+
+import java.util.SplittableRandom;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+/**
+ * Estratégia de jogada usada pelo {@link Simulator}. Recebe o jogo em andamento e escolhe o
+ * próximo quadrado a revelar. Uma mesma instância é usada por várias threads ao mesmo tempo,
+ * então as implementações não devem guardar estado mutável; a aleatoriedade vem do gerador
+ * próprio de cada jogo.
+ *
+ * @author Álefe Lucas
+ */
+public interface MoveStrategy {
+
+    /**
+     * Retorna a posição ({@code y * largura + x}) de um quadrado ainda não revelado.
+     */
+    int nextMove(Minesweeper minesweeper, SplittableRandom random);
+}
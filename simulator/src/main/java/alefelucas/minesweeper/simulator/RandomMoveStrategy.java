@@ -0,0 +1,25 @@
+package alefelucas.minesweeper.simulator;
+
+import java.util.SplittableRandom;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+/**
+ * Revela um quadrado não revelado qualquer: sorteia uma posição e, se ela já estiver revelada,
+ * avança até o próximo quadrado não revelado.
+ *
+ * @author Álefe Lucas
+ */
+public class RandomMoveStrategy implements MoveStrategy {
+
+    @Override
+    public int nextMove(Minesweeper minesweeper, SplittableRandom random) {
+        int width = minesweeper.getWidth();
+        int size = width * minesweeper.getHeight();
+        int position = random.nextInt(size);
+        while (minesweeper.isRevealed(position % width, position / width)) {
+            position = position + 1 == size ? 0 : position + 1;
+        }
+        return position;
+    }
+}
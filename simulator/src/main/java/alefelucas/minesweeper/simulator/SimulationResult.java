@@ -0,0 +1,65 @@
+package alefelucas.minesweeper.simulator;
+
+import java.util.Locale;
+
+/**
+ * Resultado de uma execução do {@link Simulator}: jogos jogados, vitórias, tempo total e
+ * histograma da duração de cada jogo.
+ *
+ * @author Álefe Lucas
+ */
+public class SimulationResult {
+
+    private final long games;
+    private final long wins;
+    private final long elapsedNanos;
+    private final LatencyHistogram latencies;
+
+    SimulationResult(long games, long wins, long elapsedNanos, LatencyHistogram latencies) {
+        this.games = games;
+        this.wins = wins;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+    }
+
+    /**
+     * Retorna a quantidade de jogos por segundo.
+     */
+    public double getGamesPerSecond() {
+        return this.games * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * Retorna a fração de jogos vencidos, de 0 a 1.
+     */
+    public double getWinRate() {
+        return this.games == 0 ? 0 : (double) this.wins / this.games;
+    }
+
+    /**
+     * Retorna a duração de um jogo no percentil dado (de 0 a 100), em nanossegundos.
+     */
+    public long getLatencyPercentile(double percentile) {
+        return this.latencies.percentile(percentile);
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%d jogos em %.2f s: %.0f jogos/s, %.2f%% vitórias, latência p50=%d ns p90=%d ns p99=%d ns max=%d ns",
+                this.games, this.elapsedNanos / 1e9, getGamesPerSecond(), getWinRate() * 100,
+                getLatencyPercentile(50), getLatencyPercentile(90), getLatencyPercentile(99), this.latencies.getMax());
+    }
+}
@@ -0,0 +1,141 @@
+package alefelucas.minesweeper.simulator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import alefelucas.minesweeper.model.Minesweeper;
+
+import static alefelucas.minesweeper.model.GameStatus.PLAYING;
+import static alefelucas.minesweeper.model.GameStatus.WON;
+
+/**
+ * Simulador sem interface que joga muitas partidas de {@link Minesweeper} em paralelo num
+ * {@link ForkJoinPool}, escolhendo as jogadas com uma {@link MoveStrategy}. As partidas são
+ * divididas em lotes; cada lote joga suas partidas com seus próprios contadores e histograma,
+ * que só são somados no final, então as threads não compartilham estado mutável.
+ * <p>
+ * A partida de índice {@code i} usa a semente {@code seed + i}, tanto para o campo quanto para
+ * a estratégia, de forma que uma execução é reproduzível independente da quantidade de threads.
+ *
+ * @author Álefe Lucas
+ */
+public class Simulator {
+
+    /**
+     * Quantidade de partidas de um lote, abaixo da qual o lote não é mais dividido.
+     */
+    private static final int BATCH = 256;
+
+    private final int height;
+    private final int width;
+    private final int mineQuantity;
+    private final MoveStrategy strategy;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constrói o simulador para partidas do tamanho e quantidade de minas dados.
+     */
+    public Simulator(int height, int width, int mineQuantity, MoveStrategy strategy, ForkJoinPool pool) {
+        this.height = height;
+        this.width = width;
+        this.mineQuantity = mineQuantity;
+        this.strategy = strategy;
+        this.pool = pool;
+    }
+
+    /**
+     * Joga a quantidade de partidas dada e retorna o resultado agregado.
+     */
+    public SimulationResult run(long games, long seed) {
+        long start = System.nanoTime();
+        Batch batch = new Batch(seed, 0, games);
+        this.pool.invoke(batch);
+        return new SimulationResult(games, batch.wins, System.nanoTime() - start, batch.latencies);
+    }
+
+    /**
+     * Joga uma partida até o fim.
+     *
+     * @return se a partida foi vencida.
+     */
+    private boolean play(long seed) {
+        Minesweeper minesweeper = new Minesweeper(this.height, this.width, this.mineQuantity, seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        while (minesweeper.getStatus() == PLAYING) {
+            int position = this.strategy.nextMove(minesweeper, random);
+            minesweeper.reveal(position % this.width, position / this.width);
+        }
+        return minesweeper.getStatus() == WON;
+    }
+
+    /**
+     * Lote de partidas {@code [from, to)}, dividido ao meio até ter no máximo {@link #BATCH} partidas.
+     */
+    private class Batch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final long from;
+        private final long to;
+
+        private long wins;
+        private LatencyHistogram latencies;
+
+        Batch(long seed, long from, long to) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > BATCH) {
+                long middle = (this.from + this.to) >>> 1;
+                Batch left = new Batch(this.seed, this.from, middle);
+                Batch right = new Batch(this.seed, middle, this.to);
+                ForkJoinTask.invokeAll(left, right);
+                this.wins = left.wins + right.wins;
+                this.latencies = left.latencies;
+                this.latencies.add(right.latencies);
+                return;
+            }
+            this.latencies = new LatencyHistogram();
+            for (long game = this.from; game < this.to; game++) {
+                long start = System.nanoTime();
+                if (play(this.seed + game)) {
+                    this.wins++;
+                }
+                this.latencies.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Executa o simulador pela linha de comando.
+     * <p>
+     * Argumentos: altura largura minas partidas [threads] [semente].
+     */
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("uso: Simulator altura largura minas partidas [threads] [semente]");
+            System.exit(1);
+        }
+        int height = Integer.parseInt(args[0]);
+        int width = Integer.parseInt(args[1]);
+        int mines = Integer.parseInt(args[2]);
+        long games = Long.parseLong(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Simulator simulator = new Simulator(height, width, mines, new RandomMoveStrategy(), pool);
+            System.out.println(simulator.run(games, seed));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
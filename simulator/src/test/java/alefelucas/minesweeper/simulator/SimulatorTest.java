@@ -0,0 +1,55 @@
+package alefelucas.minesweeper.simulator;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes locais do {@link Simulator}.
+ *
+ * @author Álefe Lucas
+ */
+public class SimulatorTest {
+
+    /**
+     * Mais partidas que um lote, para que a execução seja dividida entre as threads.
+     */
+    private static final long GAMES = 1500;
+
+    @Test
+    public void run_isReproducibleAcrossRunsAndParallelism() {
+        long[] single = run(1);
+        long[] again = run(1);
+        long[] parallel = run(4);
+
+        assertTrue(single[0] > 0 && single[0] < GAMES);
+        assertArrayEquals(single, again);
+        assertArrayEquals(single, parallel);
+    }
+
+    /**
+     * Roda a simulação com a semente fixa num pool com a quantidade de threads dada.
+     *
+     * @return as vitórias e a soma das posições jogadas em todas as partidas.
+     */
+    private static long[] run(int parallelism) {
+        AtomicLong moves = new AtomicLong();
+        MoveStrategy random = new RandomMoveStrategy();
+        MoveStrategy counting = (minesweeper, generator) -> {
+            int position = random.nextMove(minesweeper, generator);
+            moves.addAndGet(position);
+            return position;
+        };
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            SimulationResult result = new Simulator(6, 6, 3, counting, pool).run(GAMES, 42);
+            assertEquals(GAMES, result.getGames());
+            return new long[]{result.getWins(), moves.get()};
+        } finally {
+            pool.shutdown();
+        }
+    }
+}